@@ -2,8 +2,11 @@ package itmo.rshd.config;
 
 import org.apache.tinkerpop.gremlin.driver.Cluster;
 import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
+import org.apache.tinkerpop.gremlin.util.MessageSerializer;
+import org.apache.tinkerpop.gremlin.util.ser.GraphBinaryMessageSerializerV1;
 import org.apache.tinkerpop.gremlin.util.ser.GraphSONMessageSerializerV3;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,31 +21,88 @@ import static org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalS
 @Configuration
 public class JanusGraphConfig {
 
+    public enum GraphSerializer {
+        GRAPHBINARY, // Compact binary format, the default
+        GRAPHSON     // JSON, for servers without GraphBinary configured
+    }
+
+    @Value("${janusgraph.host:localhost}")
+    private String host;
+
+    @Value("${janusgraph.port:8182}")
+    private int port;
+
+    @Value("${janusgraph.serializer:GRAPHBINARY}")
+    private GraphSerializer serializer;
+
+    // Since TinkerPop 3.5 a connection serves one request at a time, so the pool size caps in-flight requests
+    @Value("${janusgraph.pool.min-size:2}")
+    private int minConnectionPoolSize;
+
+    @Value("${janusgraph.pool.max-size:16}")
+    private int maxConnectionPoolSize;
+
+    @Value("${janusgraph.pool.max-wait-for-connection-ms:3000}")
+    private int maxWaitForConnection;
+
+    @Value("${janusgraph.result-iteration-batch-size:256}")
+    private int resultIterationBatchSize;
+
+    @Value("${janusgraph.max-content-length:10485760}")
+    private int maxContentLength;
+
     private Cluster cluster;
     private GraphTraversalSource g;
 
-    @Bean
-    public GraphTraversalSource graphTraversalSource() {
-        // Configure the serializer to handle JanusGraph types
-        // Using GraphSON instead of GraphBinary for better compatibility
-        final GraphSONMessageSerializerV3 serializer = new GraphSONMessageSerializerV3();
-        Map<String, Object> config = new HashMap<>();
-        config.put("ioRegistries", Arrays.asList("org.janusgraph.graphdb.tinkerpop.JanusGraphIoRegistry"));
-        serializer.configure(config, null);
-
+    // Closed in closeGraph() after the traversal source
+    @Bean(destroyMethod = "")
+    public Cluster gremlinCluster() {
         // Create connection to the remote JanusGraph server
-        cluster = Cluster.build()
-                .addContactPoint("localhost")
-                .port(8182)
-                .serializer(serializer) // Use the configured serializer
-                .create();
-        
+        cluster = createCluster(serializer);
+        System.out.println("Connecting to JanusGraph at " + host + ":" + port + " using " + serializer
+                + " with up to " + maxConnectionPoolSize + " connections.");
+        return cluster;
+    }
+
+    @Bean
+    public GraphTraversalSource graphTraversalSource(Cluster cluster) {
         // Get traversal source
         g = traversal().withRemote(DriverRemoteConnection.using(cluster, "g"));
-        
+
         return g;
     }
 
+    /**
+     * Builds a cluster with the configured pool settings and the given wire format.
+     * The caller owns the returned cluster and must close it.
+     */
+    public Cluster createCluster(GraphSerializer format) {
+        return Cluster.build()
+                .addContactPoint(host)
+                .port(port)
+                .serializer(createSerializer(format))
+                .minConnectionPoolSize(Math.min(minConnectionPoolSize, maxConnectionPoolSize))
+                .maxConnectionPoolSize(maxConnectionPoolSize)
+                .maxWaitForConnection(maxWaitForConnection)
+                .resultIterationBatchSize(resultIterationBatchSize)
+                .maxContentLength(maxContentLength)
+                .create();
+    }
+
+    // Both formats need the JanusGraph IO registry to (de)serialize types such as RelationIdentifier
+    private MessageSerializer<?> createSerializer(GraphSerializer format) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("ioRegistries", Arrays.asList("org.janusgraph.graphdb.tinkerpop.JanusGraphIoRegistry"));
+        if (format == GraphSerializer.GRAPHSON) {
+            GraphSONMessageSerializerV3 graphSon = new GraphSONMessageSerializerV3();
+            graphSon.configure(config, null);
+            return graphSon;
+        }
+        GraphBinaryMessageSerializerV1 graphBinary = new GraphBinaryMessageSerializerV1();
+        graphBinary.configure(config, null);
+        return graphBinary;
+    }
+
     @PreDestroy
     public void closeGraph() throws IOException {
         try {
@@ -50,7 +110,7 @@ public class JanusGraphConfig {
                 g.close();
                 System.out.println("Graph traversal source closed properly.");
             }
-            
+
             if (cluster != null) {
                 cluster.close();
                 System.out.println("Gremlin cluster connection closed properly.");
@@ -60,4 +120,4 @@ public class JanusGraphConfig {
             throw new IOException("Failed to close JanusGraph connections", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -46,10 +46,12 @@ public class MongoConfig {
         mongoTemplate.indexOps("users").ensureIndex(new Index().on("countryId", Sort.Direction.ASC));
         mongoTemplate.indexOps("users").ensureIndex(new Index().on("status", Sort.Direction.ASC));
         mongoTemplate.indexOps("users").ensureIndex(new Index().on("socialRating", Sort.Direction.ASC));
+        mongoTemplate.indexOps("users").ensureIndex(new Index().on("ancestorRegionIds", Sort.Direction.ASC));
 
         // Create indices for Region collection
         mongoTemplate.indexOps("regions").ensureIndex(new Index().on("type", Sort.Direction.ASC));
         mongoTemplate.indexOps("regions").ensureIndex(new Index().on("parentRegionId", Sort.Direction.ASC));
+        mongoTemplate.indexOps("regions").ensureIndex(new Index().on("ancestorIds", Sort.Direction.ASC));
         mongoTemplate.indexOps("regions").ensureIndex(new Index().on("underThreat", Sort.Direction.ASC));
 
         // Create geospatial index for region boundaries
@@ -62,6 +64,9 @@ public class MongoConfig {
         mongoTemplate.indexOps("missiles").ensureIndex(new Index().on("status", Sort.Direction.ASC));
         mongoTemplate.indexOps("missiles").ensureIndex(new Index().on("supplyDepotId", Sort.Direction.ASC));
         mongoTemplate.indexOps("missiles").ensureIndex(new Index().on("range", Sort.Direction.ASC));
+        mongoTemplate.indexOps("missiles").ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("lastMaintenanceDate", Sort.Direction.ASC));
 
         // Create geospatial index for missile locations
         GeospatialIndex missileGeoIndex = new GeospatialIndex("currentLocation");
@@ -1,24 +1,73 @@
 package itmo.rshd.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import itmo.rshd.model.ImpactEstimate;
+import itmo.rshd.model.Job;
+import itmo.rshd.service.JobService;
 import itmo.rshd.service.RegionAssessmentService;
 
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/government")
 public class GovernmentController {
     
     @Autowired
     private RegionAssessmentService regionAssessmentService;
+
+    @Autowired
+    private JobService jobService;
     
     @PostMapping("/assess-region/{region}")
     public boolean assessRegion(@PathVariable String region) {
         return regionAssessmentService.shouldDeployOreshnik(region);
     }
     
+    @GetMapping("/estimate-impact/{region}")
+    public ResponseEntity<ImpactEstimate> estimateImpact(@PathVariable String region) {
+        ImpactEstimate estimate = regionAssessmentService.estimateImpact(region);
+        if (estimate == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(estimate, HttpStatus.OK);
+    }
+
     @PostMapping("/deploy-oreshnik/{region}")
-    public void deployOreshnik(@PathVariable String region) {
-        regionAssessmentService.deployOreshnik(region);
+    public ResponseEntity<Job> deployOreshnik(@PathVariable String region) {
+        Optional<Job> job = jobService.submit("DEPLOY_ORESHNIK", region, progress ->
+                regionAssessmentService.deployOreshnik(region, progress)
+                        ? "Oreshnik deployed to region " + region
+                        : "Oreshnik deployment not authorized for region " + region);
+        return job.map(submitted -> new ResponseEntity<>(submitted, HttpStatus.ACCEPTED))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Job>> getJobs() {
+        return new ResponseEntity<>(jobService.getJobs(), HttpStatus.OK);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Job> getJob(@PathVariable String id) {
+        return jobService.getJob(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<Job> cancelJob(@PathVariable String id) {
+        Optional<Job> job = jobService.getJob(id);
+        if (job.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!jobService.cancel(id)) {
+            return new ResponseEntity<>(job.get(), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(job.get(), HttpStatus.OK);
     }
 }
@@ -1,8 +1,12 @@
 package itmo.rshd.controller;
 
+import itmo.rshd.model.FleetSummary;
 import itmo.rshd.model.Missile;
 import itmo.rshd.model.Missile.MissileStatus;
 import itmo.rshd.model.Missile.MissileType;
+import itmo.rshd.model.websocket.MaintenanceScanSummary;
+import itmo.rshd.service.FleetStatisticsService;
+import itmo.rshd.service.MissileMaintenanceScanner;
 import itmo.rshd.service.MissileService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,10 +21,15 @@ import java.util.Optional;
 public class MissileController {
 
     private final MissileService missileService;
+    private final MissileMaintenanceScanner missileMaintenanceScanner;
+    private final FleetStatisticsService fleetStatisticsService;
 
     @Autowired
-    public MissileController(MissileService missileService) {
+    public MissileController(MissileService missileService, MissileMaintenanceScanner missileMaintenanceScanner,
+            FleetStatisticsService fleetStatisticsService) {
         this.missileService = missileService;
+        this.missileMaintenanceScanner = missileMaintenanceScanner;
+        this.fleetStatisticsService = fleetStatisticsService;
     }
 
     @PostMapping
@@ -35,6 +44,11 @@ public class MissileController {
         return new ResponseEntity<>(missiles, HttpStatus.OK);
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<FleetSummary> getFleetSummary() {
+        return new ResponseEntity<>(fleetStatisticsService.getSummary(), HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Missile> getMissileById(@PathVariable String id) {
         Optional<Missile> missile = missileService.getMissileById(id);
@@ -47,8 +61,10 @@ public class MissileController {
         Optional<Missile> existingMissile = missileService.getMissileById(id);
         if (existingMissile.isPresent()) {
             missile.setId(id);
-            Missile updatedMissile = missileService.updateMissile(missile);
-            return new ResponseEntity<>(updatedMissile, HttpStatus.OK);
+            // A body carrying a stale version lost to a concurrent write
+            return missileService.updateMissile(missile)
+                    .map(updatedMissile -> new ResponseEntity<>(updatedMissile, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.CONFLICT));
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -85,24 +101,31 @@ public class MissileController {
 
     @PutMapping("/{id}/maintenance")
     public ResponseEntity<String> performMaintenance(@PathVariable String id) {
-        boolean success = missileService.performMaintenance(id);
-        
-        if (success) {
-            return new ResponseEntity<>("Maintenance started", HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Missile not found", HttpStatus.NOT_FOUND);
-        }
+        return switch (missileService.performMaintenance(id)) {
+            case SUCCESS -> new ResponseEntity<>("Maintenance started", HttpStatus.OK);
+            case CONFLICT -> new ResponseEntity<>("Missile was modified concurrently, retry", HttpStatus.CONFLICT);
+            case NOT_FOUND -> new ResponseEntity<>("Missile not found", HttpStatus.NOT_FOUND);
+            case REJECTED -> new ResponseEntity<>("Maintenance not allowed in current status", HttpStatus.BAD_REQUEST);
+        };
     }
 
     @PutMapping("/{id}/maintenance/complete")
     public ResponseEntity<String> completeMaintenance(@PathVariable String id) {
-        boolean success = missileService.completeMaintenance(id);
-        
-        if (success) {
-            return new ResponseEntity<>("Maintenance completed", HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Missile not found or not in maintenance", HttpStatus.BAD_REQUEST);
+        return switch (missileService.completeMaintenance(id)) {
+            case SUCCESS -> new ResponseEntity<>("Maintenance completed", HttpStatus.OK);
+            case CONFLICT -> new ResponseEntity<>("Missile was modified concurrently, retry", HttpStatus.CONFLICT);
+            case NOT_FOUND -> new ResponseEntity<>("Missile not found", HttpStatus.NOT_FOUND);
+            case REJECTED -> new ResponseEntity<>("Missile not in maintenance", HttpStatus.BAD_REQUEST);
+        };
+    }
+
+    @PostMapping("/maintenance/scan")
+    public ResponseEntity<MaintenanceScanSummary> scanMaintenance() {
+        MaintenanceScanSummary summary = missileMaintenanceScanner.scan();
+        if (summary == null) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         }
+        return new ResponseEntity<>(summary, HttpStatus.OK);
     }
 
     @PostMapping("/{id}/deploy")
@@ -110,19 +133,18 @@ public class MissileController {
             @PathVariable String id,
             @RequestParam String targetRegionId) {
         
-        boolean success = missileService.deployMissile(id, targetRegionId);
-        
-        if (success) {
-            return new ResponseEntity<>("Missile deployed successfully", HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Deployment failed - check missile status or target eligibility", HttpStatus.BAD_REQUEST);
-        }
+        return switch (missileService.deployMissile(id, targetRegionId)) {
+            case SUCCESS -> new ResponseEntity<>("Missile deployed successfully", HttpStatus.OK);
+            case CONFLICT -> new ResponseEntity<>("Missile was modified concurrently, retry", HttpStatus.CONFLICT);
+            case NOT_FOUND -> new ResponseEntity<>("Missile or target region not found", HttpStatus.NOT_FOUND);
+            case REJECTED -> new ResponseEntity<>("Deployment failed - check missile status or target eligibility", HttpStatus.BAD_REQUEST);
+        };
     }
 
     @GetMapping("/for-region/{regionId}")
     public ResponseEntity<List<Missile>> getMissilesForRegion(
             @PathVariable String regionId,
-            @RequestParam double minRange) {
+            @RequestParam(defaultValue = "0") double minRange) {
         
         List<Missile> missiles = missileService.findMissilesForRegion(regionId, minRange);
         return new ResponseEntity<>(missiles, HttpStatus.OK);
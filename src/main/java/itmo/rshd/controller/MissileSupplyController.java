@@ -7,8 +7,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import itmo.rshd.model.StockDelta;
+import itmo.rshd.model.SupplyCostFunction;
+import itmo.rshd.model.SupplyFlowPlan;
+import itmo.rshd.model.SupplyReachability;
 import itmo.rshd.service.MissileSupplyGraphService;
+import itmo.rshd.service.SupplyCapacityPlanner;
+import itmo.rshd.service.SupplyGraphSchemaService;
+import itmo.rshd.service.SupplyReachabilityService;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,10 +25,18 @@ import java.util.Map;
 public class MissileSupplyController {
 
     private final MissileSupplyGraphService missileSupplyGraphService;
+    private final SupplyCapacityPlanner supplyCapacityPlanner;
+    private final SupplyGraphSchemaService supplyGraphSchemaService;
+    private final SupplyReachabilityService supplyReachabilityService;
 
     @Autowired
-    public MissileSupplyController(MissileSupplyGraphService missileSupplyGraphService) {
+    public MissileSupplyController(MissileSupplyGraphService missileSupplyGraphService,
+            SupplyCapacityPlanner supplyCapacityPlanner, SupplyGraphSchemaService supplyGraphSchemaService,
+            SupplyReachabilityService supplyReachabilityService) {
         this.missileSupplyGraphService = missileSupplyGraphService;
+        this.supplyCapacityPlanner = supplyCapacityPlanner;
+        this.supplyGraphSchemaService = supplyGraphSchemaService;
+        this.supplyReachabilityService = supplyReachabilityService;
     }
 
     @GetMapping("/depots")
@@ -41,8 +57,13 @@ public class MissileSupplyController {
     }
     
     @GetMapping("/routes")
-    public ResponseEntity<List<Map<String, Object>>> getAllRoutes() {
-        List<Map<String, Object>> routes = missileSupplyGraphService.getAllSupplyRoutes();
+    public ResponseEntity<List<Map<String, Object>>> getAllRoutes(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "0") int limit) {
+        if (offset < 0 || limit < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Map<String, Object>> routes = missileSupplyGraphService.getSupplyRoutes(offset, limit);
         return new ResponseEntity<>(routes, HttpStatus.OK);
     }
     
@@ -128,17 +149,27 @@ public class MissileSupplyController {
             @RequestParam String missileTypeId,
             @RequestParam int quantity) {
         
-        missileSupplyGraphService.addMissilesToDepot(depotId, missileTypeId, quantity);
+        Integer currentStock = missileSupplyGraphService.addMissilesToDepot(depotId, missileTypeId, quantity);
+        
+        if (currentStock == null) {
+            return new ResponseEntity<>("Depot or missile type not found", HttpStatus.NOT_FOUND);
+        }
         
         return new ResponseEntity<>("Missiles added to depot successfully", HttpStatus.OK);
     }
 
+    @PostMapping("/stock-deltas")
+    public ResponseEntity<Map<String, Integer>> applyStockDeltas(@RequestBody List<StockDelta> deltas) {
+        return new ResponseEntity<>(missileSupplyGraphService.applyStockDeltas(deltas), HttpStatus.OK);
+    }
+
     @GetMapping("/routes/optimal")
     public ResponseEntity<List<Map<String, Object>>> findOptimalRoute(
             @RequestParam String fromDepotId,
-            @RequestParam String toDepotId) {
+            @RequestParam String toDepotId,
+            @RequestParam(required = false) SupplyCostFunction cost) {
         
-        List<Map<String, Object>> route = missileSupplyGraphService.findOptimalSupplyRoute(fromDepotId, toDepotId);
+        List<Map<String, Object>> route = missileSupplyGraphService.findOptimalSupplyRoute(fromDepotId, toDepotId, cost);
         
         if (route.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -147,6 +178,61 @@ public class MissileSupplyController {
         return new ResponseEntity<>(route, HttpStatus.OK);
     }
 
+    @GetMapping("/routes/cache-stats")
+    public ResponseEntity<Map<String, Object>> getRouteCacheStats() {
+        return new ResponseEntity<>(missileSupplyGraphService.getRouteCacheStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/routes/alternatives")
+    public ResponseEntity<List<Map<String, Object>>> findAlternativeRoutes(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "3") int k,
+            @RequestParam(required = false) SupplyCostFunction cost,
+            @RequestParam(required = false) Double distanceWeight,
+            @RequestParam(required = false) Double riskWeight,
+            @RequestParam(required = false) Double capacityWeight) {
+        if (k < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<Map<String, Object>> routes = missileSupplyGraphService.findAlternativeSupplyRoutes(
+            from, to, k, cost, distanceWeight, riskWeight, capacityWeight);
+
+        if (routes.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        return new ResponseEntity<>(routes, HttpStatus.OK);
+    }
+
+    @GetMapping("/capacity-plan")
+    public ResponseEntity<SupplyFlowPlan> getCapacityPlan() {
+        return new ResponseEntity<>(supplyCapacityPlanner.getPlan(), HttpStatus.OK);
+    }
+
+    @GetMapping("/reachability")
+    public ResponseEntity<SupplyReachability> getReachability() {
+        return new ResponseEntity<>(supplyReachabilityService.getReachability(), HttpStatus.OK);
+    }
+
+    @GetMapping("/reachability/check")
+    public ResponseEntity<Map<String, Object>> checkReachability(
+            @RequestParam String from,
+            @RequestParam String to) {
+        Boolean reachable = supplyReachabilityService.isReachable(from, to);
+
+        if (reachable == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("reachable", reachable);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     @GetMapping("/depots/missiles")
     public ResponseEntity<List<Map<String, Object>>> findDepotsWithMissileType(
             @RequestParam String missileTypeId,
@@ -163,6 +249,18 @@ public class MissileSupplyController {
         return new ResponseEntity<>("Supply chain has been reset. It will be regenerated on the next application restart.", HttpStatus.OK);
     }
     
+    @GetMapping("/admin/schema")
+    public ResponseEntity<Map<String, Object>> getSchemaStatus() {
+        return new ResponseEntity<>(supplyGraphSchemaService.getLastReport(), HttpStatus.OK);
+    }
+
+    @PostMapping("/admin/schema")
+    public ResponseEntity<Map<String, Object>> ensureSchema() {
+        Map<String, Object> report = supplyGraphSchemaService.ensureSchema();
+        HttpStatus status = report.containsKey("error") ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+        return new ResponseEntity<>(report, status);
+    }
+    
     @PostMapping("/admin/generate-supply-chain")
     public ResponseEntity<String> generateSupplyChain() {
         try {
@@ -1,9 +1,13 @@
 package itmo.rshd.controller;
 
 import itmo.rshd.model.GeoLocation;
+import itmo.rshd.model.LeaderboardEntry;
 import itmo.rshd.model.Region;
 import itmo.rshd.model.Region.RegionType;
+import itmo.rshd.model.RegionInfluence;
 import itmo.rshd.model.User;
+import itmo.rshd.service.RatingInfluenceService;
+import itmo.rshd.service.RegionLeaderboardService;
 import itmo.rshd.service.RegionService;
 import itmo.rshd.service.WebSocketService;
 import itmo.rshd.service.UserService;
@@ -22,12 +26,17 @@ public class RegionController {
     private final RegionService regionService;
     private final WebSocketService webSocketService;
     private final UserService userService;
+    private final RegionLeaderboardService regionLeaderboardService;
+    private final RatingInfluenceService ratingInfluenceService;
 
     @Autowired
-    public RegionController(RegionService regionService, WebSocketService webSocketService, UserService userService) {
+    public RegionController(RegionService regionService, WebSocketService webSocketService, UserService userService,
+            RegionLeaderboardService regionLeaderboardService, RatingInfluenceService ratingInfluenceService) {
         this.regionService = regionService;
         this.webSocketService = webSocketService;
         this.userService = userService;
+        this.regionLeaderboardService = regionLeaderboardService;
+        this.ratingInfluenceService = ratingInfluenceService;
     }
 
     @PostMapping
@@ -147,4 +156,28 @@ public class RegionController {
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
+
+    @GetMapping("/{id}/leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") int top,
+            @RequestParam(defaultValue = "false") boolean lowest) {
+
+        if (!regionLeaderboardService.hasRegion(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        List<LeaderboardEntry> leaderboard = regionLeaderboardService.getLeaderboard(id, top, lowest);
+        return new ResponseEntity<>(leaderboard, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/influence")
+    public ResponseEntity<RegionInfluence> getRegionInfluence(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") int top) {
+
+        if (!regionLeaderboardService.hasRegion(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(ratingInfluenceService.getRegionInfluence(id, top), HttpStatus.OK);
+    }
 }
\ No newline at end of file
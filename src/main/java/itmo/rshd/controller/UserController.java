@@ -1,7 +1,12 @@
 package itmo.rshd.controller;
 
+import itmo.rshd.model.BulkRatingResult;
 import itmo.rshd.model.GeoLocation;
+import itmo.rshd.model.InfluenceScore;
 import itmo.rshd.model.User;
+import itmo.rshd.model.websocket.RatingUpdate;
+import itmo.rshd.service.RatingAnomalyDetector;
+import itmo.rshd.service.RatingInfluenceService;
 import itmo.rshd.service.UserService;
 import itmo.rshd.service.WebSocketService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,11 +23,16 @@ public class UserController {
 
     private final UserService userService;
     private final WebSocketService webSocketService;
+    private final RatingInfluenceService ratingInfluenceService;
+    private final RatingAnomalyDetector ratingAnomalyDetector;
 
     @Autowired
-    public UserController(UserService userService, WebSocketService webSocketService) {
+    public UserController(UserService userService, WebSocketService webSocketService,
+            RatingInfluenceService ratingInfluenceService, RatingAnomalyDetector ratingAnomalyDetector) {
         this.userService = userService;
         this.webSocketService = webSocketService;
+        this.ratingInfluenceService = ratingInfluenceService;
+        this.ratingAnomalyDetector = ratingAnomalyDetector;
     }
 
     @PostMapping("/login")
@@ -126,6 +136,9 @@ public class UserController {
         User processedUser;
 
         if (raterId != null && !raterId.isEmpty()) {
+            if (ratingAnomalyDetector.check(raterId, id) == RatingAnomalyDetector.Verdict.SHED) {
+                return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+            }
             processedUser = userService.updateTargetSocialRating(raterId, id, ratingValue);
         } else {
             processedUser = userService.updateSocialRating(id, ratingValue);
@@ -139,6 +152,32 @@ public class UserController {
         }
     }
 
+    @PostMapping("/social-rating/bulk")
+    public ResponseEntity<BulkRatingResult> applyRatingUpdates(@RequestBody List<RatingUpdate> ratingUpdates) {
+        BulkRatingResult result = userService.applyRatingUpdates(ratingUpdates);
+
+        for (User updatedUser : result.getUpdatedUsers()) {
+            webSocketService.notifySocialRatingChange(updatedUser.getId(), updatedUser);
+        }
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/influence")
+    public ResponseEntity<InfluenceScore> getInfluence(@PathVariable String id) {
+        if (userService.getUserById(id).isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(ratingInfluenceService.getInfluence(id), HttpStatus.OK);
+    }
+
+    @PostMapping("/influence/recompute")
+    public ResponseEntity<String> recomputeInfluence() {
+        int iterations = ratingInfluenceService.recompute();
+        return new ResponseEntity<>("Influence recomputed over " + ratingInfluenceService.getEdgeCount()
+                + " rating edges in " + iterations + " iterations.", HttpStatus.OK);
+    }
+
     @GetMapping("/region/{regionId}")
     public ResponseEntity<List<User>> getUsersInRegion(@PathVariable String regionId) {
         List<User> users = userService.findUsersInRegion(regionId);
@@ -0,0 +1,21 @@
+package itmo.rshd.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "batch_checkpoints")
+public class BatchCheckpoint {
+    @Id
+    private String jobName;
+    private long runId;             // Increases with every run; stamped on the users it updated
+    private String lastProcessedId; // Highest _id fully processed; the next chunk starts after it
+    private long processedCount;
+    private long updatedCount;
+    private boolean completed;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+}
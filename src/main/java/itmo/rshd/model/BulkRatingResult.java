@@ -0,0 +1,23 @@
+package itmo.rshd.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkRatingResult {
+    private int received;
+    private int applied;
+    private int skipped; // Unknown rater/target or malformed records
+    private int flagged; // Applied, but part of a suspicious burst
+    private int shed;    // Dropped by the anomaly detector
+    private int usersUpdated;
+    private int regionsUpdated;
+
+    @JsonIgnore
+    private List<User> updatedUsers = new ArrayList<>(); // Final state of every rated user, for notifications
+}
@@ -0,0 +1,31 @@
+package itmo.rshd.model;
+
+import itmo.rshd.model.Missile.MissileStatus;
+import itmo.rshd.model.Missile.MissileType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact fleet overview: missile counts and range histograms per (type, status).
+ */
+@Data
+@NoArgsConstructor
+public class FleetSummary {
+    private long totalMissiles;
+    private List<String> rangeBands = new ArrayList<>(); // Labels of the histogram bands, in km
+    private List<FleetBucket> buckets = new ArrayList<>(); // Only non-empty (type, status) pairs
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FleetBucket {
+        private MissileType type;
+        private MissileStatus status;
+        private long count;
+        private List<Long> rangeHistogram; // Counts per band, aligned with rangeBands
+    }
+}
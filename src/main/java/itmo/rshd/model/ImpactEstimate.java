@@ -0,0 +1,35 @@
+package itmo.rshd.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a region-wide action would affect, computed by aggregation without loading users.
+ */
+@Data
+@NoArgsConstructor
+public class ImpactEstimate {
+    private String regionId;
+    private int regionsAffected;          // The region and all of its sub-regions
+    private long affectedPopulation;      // Active users under the region
+    private double averageSocialRating;
+    private long importantPersonsCount;   // IMPORTANT or VIP
+    private Map<User.SocialStatus, Long> statusCounts = new EnumMap<>(User.SocialStatus.class);
+    private List<RatingBucket> ratingDistribution = new ArrayList<>();
+    private long outOfRangeCount;         // Users whose rating falls outside every bucket
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RatingBucket {
+        private double from; // Inclusive
+        private double to;   // Exclusive, except for the last bucket which includes 100
+        private long count;
+    }
+}
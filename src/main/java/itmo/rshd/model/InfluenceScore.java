@@ -0,0 +1,13 @@
+package itmo.rshd.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InfluenceScore {
+    private String userId;
+    private double influence; // Relative to the average user: 1.0 is average, 0 if never rated or rated by anyone
+}
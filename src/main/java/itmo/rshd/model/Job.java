@@ -0,0 +1,37 @@
+package itmo.rshd.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A long-running operation executed in the background.
+ * Progress fields are written by the worker thread and read by API and STOMP clients.
+ */
+@Data
+public class Job {
+    private String id;
+    private String type;     // e.g. DEPLOY_ORESHNIK
+    private String targetId; // Region or other entity the job works on
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile long usersProcessed;
+    private volatile int regionsUpdated;
+    private volatile String message;
+    private volatile boolean cancelRequested;
+    private volatile boolean cancellable = true; // Cleared once the job passes its point of no return
+    private LocalDateTime submittedAt;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public boolean isFinished() {
+        return status == JobStatus.SUCCEEDED || status == JobStatus.FAILED || status == JobStatus.CANCELLED;
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,16 @@
+package itmo.rshd.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardEntry {
+    private int rank;
+    private String userId;
+    private String fullName;
+    private double socialRating;
+    private User.SocialStatus status;
+}
@@ -18,7 +18,13 @@ public class Missile {
     private LocalDateTime lastMaintenanceDate;
     private String supplyDepotId; // Reference to where this missile is stored
     private GeoLocation currentLocation;
+    private Long version; // Incremented on every write; null on documents written before versioning
     
+    // Documents and request bodies without a version count as version 0
+    public long versionOrZero() {
+        return version != null ? version : 0L;
+    }
+
     public enum MissileType {
         ORESHNIK,
         KINZHAL,
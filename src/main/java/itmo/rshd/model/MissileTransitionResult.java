@@ -0,0 +1,11 @@
+package itmo.rshd.model;
+
+/**
+ * Outcome of a missile state transition.
+ */
+public enum MissileTransitionResult {
+    SUCCESS,   // Transition applied
+    CONFLICT,  // The missile changed concurrently; re-read and retry
+    NOT_FOUND, // Missile (or target region) does not exist
+    REJECTED   // Not allowed from the current state or for this target
+}
@@ -16,6 +16,7 @@ public class Region {
     private String name;
     private RegionType type;
     private String parentRegionId; // For hierarchical structure (district -> city -> country)
+    private List<String> ancestorIds = new ArrayList<>(); // All ancestors, country first; maintained on writes
     private GeoJsonPolygon boundaries; // Changed to GeoJsonPolygon
     private double averageSocialRating; // Calculated field
     private int populationCount;
@@ -0,0 +1,17 @@
+package itmo.rshd.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class RegionInfluence {
+    private String regionId;
+    private int usersScored;
+    private double totalInfluence;
+    private double averageInfluence;
+    private List<InfluenceScore> topInfluencers = new ArrayList<>();
+}
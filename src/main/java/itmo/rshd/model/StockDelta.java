@@ -0,0 +1,17 @@
+package itmo.rshd.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change of the number of missiles of one type held by a depot.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockDelta {
+    private String depotId;
+    private String missileTypeId;
+    private int quantity;
+}
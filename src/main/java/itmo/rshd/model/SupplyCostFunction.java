@@ -0,0 +1,23 @@
+package itmo.rshd.model;
+
+/**
+ * Cost of moving supplies along a single route, used to rank supply paths.
+ */
+public enum SupplyCostFunction {
+    DISTANCE,               // Shortest total distance
+    RISK,                   // Highest probability that no route on the path fails
+    RISK_ADJUSTED_DISTANCE; // Distance inflated by the risk of each route
+
+    public double weight(double distance, double riskFactor) {
+        double risk = Math.max(0, Math.min(riskFactor, 0.999999));
+        switch (this) {
+            case DISTANCE:
+                return Math.max(0, distance);
+            case RISK:
+                // -ln(1 - risk) sums along a path to -ln of the path's survival probability
+                return -Math.log1p(-risk);
+            default:
+                return Math.max(0, distance) * (1 + risk);
+        }
+    }
+}
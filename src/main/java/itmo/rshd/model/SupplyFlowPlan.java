@@ -0,0 +1,36 @@
+package itmo.rshd.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How much stock can be moved from regional hubs to distribution points over the active routes.
+ */
+@Data
+@NoArgsConstructor
+public class SupplyFlowPlan {
+    private long throughput;           // Maximum units that reach distribution points
+    private long hubSupply;            // Current stock of all regional hubs
+    private long distributionDemand;   // Free space of all distribution points
+    private int hubCount;
+    private int distributionPointCount;
+    private boolean incremental;       // Derived from the previous plan after route toggles
+    private LocalDateTime computedAt;
+    private List<RouteFlow> routeFlows = new ArrayList<>();  // Routes carrying flow
+    private List<RouteFlow> bottlenecks = new ArrayList<>(); // Saturated routes of a minimum cut
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RouteFlow {
+        private String sourceDepotId;
+        private String targetDepotId;
+        private long capacity;
+        private long flow;
+    }
+}
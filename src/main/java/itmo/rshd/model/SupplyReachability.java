@@ -0,0 +1,22 @@
+package itmo.rshd.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which distribution points can still be supplied from a regional hub over the active routes.
+ */
+@Data
+@NoArgsConstructor
+public class SupplyReachability {
+    private int hubCount;
+    private int distributionPointCount;
+    private int componentCount;        // Strongly connected components of the active route graph
+    private int rebuilds;              // Full recomputations since the index was built
+    private LocalDateTime updatedAt;
+    private List<String> cutOffDistributionPoints = new ArrayList<>(); // Depot ids no hub reaches
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Document(collection = "users")
 public class User {
@@ -18,13 +21,27 @@ public class User {
     private String regionId;
     private String districtId;
     private String countryId;
+    private List<String> ancestorRegionIds = new ArrayList<>(); // Embedding region and all its ancestors
     private boolean active;
     private long lastLocationUpdateTimestamp;
+    private long lastDecayRun;    // Reclassification run that last updated the rating
     
     public enum SocialStatus {
         LOW,       // Low social status
         REGULAR,   // Regular citizen
         IMPORTANT, // Important person
-        VIP        // Very important person with high privileges
+        VIP;       // Very important person with high privileges
+
+        // Status thresholds applied to a social rating
+        public static SocialStatus fromRating(double rating) {
+            if (rating >= 90) {
+                return VIP;
+            } else if (rating >= 70) {
+                return IMPORTANT;
+            } else if (rating >= 40) {
+                return REGULAR;
+            }
+            return LOW;
+        }
     }
 }
@@ -0,0 +1,16 @@
+package itmo.rshd.model.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardRankUpdate {
+    private String regionId;
+    private String userId;
+    private int previousRank; // 0 if the user was outside the tracked top window
+    private int newRank;      // 0 if the user left the tracked top window
+    private double socialRating;
+}
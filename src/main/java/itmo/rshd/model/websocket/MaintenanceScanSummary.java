@@ -0,0 +1,19 @@
+package itmo.rshd.model.websocket;
+
+import itmo.rshd.model.Missile.MissileType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class MaintenanceScanSummary {
+    private LocalDateTime scannedAt;
+    private LocalDateTime dueBefore;      // Missiles last maintained before this are overdue
+    private long dueCount;                // Overdue missiles found by the scan
+    private long transitionedCount;       // Of those, moved to IN_MAINTENANCE
+    private Map<MissileType, Long> transitionedByType = new EnumMap<>(MissileType.class);
+}
@@ -0,0 +1,16 @@
+package itmo.rshd.model.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingAnomalyAlert {
+    private String source;       // RATER, TARGET or PAIR
+    private String key;          // User id, or "raterId->targetId" for pairs
+    private int count;           // Estimated ratings within the window
+    private long windowSeconds;
+    private String verdict;      // FLAG or SHED
+}
@@ -0,0 +1,19 @@
+package itmo.rshd.model.websocket;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class SupplyPartitionAlert {
+    private LocalDateTime detectedAt;
+    private String sourceDepotId;         // Route whose change caused the partition, if known
+    private String targetDepotId;
+    private List<String> newlyCutOffDepotIds = new ArrayList<>();
+    private int cutOffCount;              // All distribution points currently cut off
+    private int distributionPointCount;
+}
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RegionRepository extends MongoRepository<Region, String> {
@@ -26,4 +27,12 @@ public interface RegionRepository extends MongoRepository<Region, String> {
     
     @Query("{'type': ?0, 'underThreat': true}")
     List<Region> findRegionsUnderThreat(RegionType type);
+    
+    // Only the geometry, without the embedded user lists
+    @Query(value = "{'_id': ?0}", fields = "{'_id': 1, 'name': 1, 'boundaries': 1}")
+    Optional<Region> findBoundariesById(String id);
+
+    // Only the hierarchy links, without the embedded user lists
+    @Query(value = "{}", fields = "{'_id': 1, 'parentRegionId': 1, 'type': 1}")
+    List<Region> findAllHierarchyLinks();
 } 
\ No newline at end of file
@@ -0,0 +1,145 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.FleetSummary;
+import itmo.rshd.model.Missile;
+import itmo.rshd.model.Missile.MissileStatus;
+import itmo.rshd.model.Missile.MissileType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators.Switch.CaseOperator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-(type, status) missile counters and range histograms, kept current by the inventory
+ * index on every write and rebuilt from one aggregation at startup. Changes are pushed to
+ * /topic/fleet-summary at most once per publish interval.
+ */
+@Service
+public class FleetStatisticsService {
+
+    // Upper bounds of the range bands in km; the last band is open-ended
+    private static final double[] RANGE_BAND_LIMITS = {500, 1000, 2500, 5000, 10000};
+
+    private static final int TYPES = MissileType.values().length;
+    private static final int STATUSES = MissileStatus.values().length;
+    private static final int BANDS = RANGE_BAND_LIMITS.length + 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final WebSocketService webSocketService;
+
+    // Flattened [type][status][band]
+    private final AtomicLongArray histogram = new AtomicLongArray(TYPES * STATUSES * BANDS);
+    private volatile boolean dirty;
+
+    @Autowired
+    public FleetStatisticsService(MongoTemplate mongoTemplate, WebSocketService webSocketService) {
+        this.mongoTemplate = mongoTemplate;
+        this.webSocketService = webSocketService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        CaseOperator[] bandCases = new CaseOperator[RANGE_BAND_LIMITS.length];
+        for (int band = 0; band < RANGE_BAND_LIMITS.length; band++) {
+            bandCases[band] = CaseOperator.when(ComparisonOperators.valueOf("range").lessThanValue(RANGE_BAND_LIMITS[band]))
+                    .then(band);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("type", "status")
+                        .and(ConditionalOperators.switchCases(bandCases).defaultTo(BANDS - 1)).as("band"),
+                Aggregation.group("type", "status", "band").count().as("count"));
+
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+        long total = 0;
+        for (Document row : mongoTemplate.aggregate(aggregation, Missile.class, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            Object type = key != null ? key.get("type") : row.get("type");
+            Object status = key != null ? key.get("status") : row.get("status");
+            Object band = key != null ? key.get("band") : row.get("band");
+            if (type == null || status == null || band == null) {
+                continue;
+            }
+            long count = ((Number) row.get("count")).longValue();
+            histogram.addAndGet(slot(MissileType.valueOf(type.toString()), MissileStatus.valueOf(status.toString()),
+                    ((Number) band).intValue()), count);
+            total += count;
+        }
+        dirty = true;
+        System.out.println("Fleet statistics built for " + total + " missiles.");
+    }
+
+    /**
+     * Moves a missile between buckets. Either side may be null for inserts and deletes.
+     */
+    public void apply(Missile previous, Missile current) {
+        if (previous != null && previous.getType() != null && previous.getStatus() != null) {
+            histogram.decrementAndGet(slot(previous.getType(), previous.getStatus(), band(previous.getRange())));
+            dirty = true;
+        }
+        if (current != null && current.getType() != null && current.getStatus() != null) {
+            histogram.incrementAndGet(slot(current.getType(), current.getStatus(), band(current.getRange())));
+            dirty = true;
+        }
+    }
+
+    public FleetSummary getSummary() {
+        FleetSummary summary = new FleetSummary();
+        double lowerLimit = 0;
+        for (double limit : RANGE_BAND_LIMITS) {
+            summary.getRangeBands().add((long) lowerLimit + "-" + (long) limit);
+            lowerLimit = limit;
+        }
+        summary.getRangeBands().add((long) lowerLimit + "+");
+
+        for (MissileType type : MissileType.values()) {
+            for (MissileStatus status : MissileStatus.values()) {
+                List<Long> bands = new ArrayList<>(BANDS);
+                long count = 0;
+                for (int band = 0; band < BANDS; band++) {
+                    long value = histogram.get(slot(type, status, band));
+                    bands.add(value);
+                    count += value;
+                }
+                if (count > 0) {
+                    summary.getBuckets().add(new FleetSummary.FleetBucket(type, status, count, bands));
+                    summary.setTotalMissiles(summary.getTotalMissiles() + count);
+                }
+            }
+        }
+        return summary;
+    }
+
+    @Scheduled(fixedDelayString = "${missile.fleet-summary.publish-interval-ms:1000}")
+    public void publishIfChanged() {
+        if (dirty) {
+            dirty = false;
+            webSocketService.notifyFleetSummary(getSummary());
+        }
+    }
+
+    private int band(double range) {
+        for (int band = 0; band < RANGE_BAND_LIMITS.length; band++) {
+            if (range < RANGE_BAND_LIMITS[band]) {
+                return band;
+            }
+        }
+        return BANDS - 1;
+    }
+
+    private int slot(MissileType type, MissileStatus status, int band) {
+        return (type.ordinal() * STATUSES + status.ordinal()) * BANDS + band;
+    }
+}
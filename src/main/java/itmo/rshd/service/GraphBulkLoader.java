@@ -0,0 +1,107 @@
+package itmo.rshd.service;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Merge;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads vertices and edges from in-memory lists with one traversal per chunk instead of one
+ * round trip per element. Each chunk is injected as a list and unfolded into mergeV/mergeE, so
+ * loading is idempotent: a vertex is matched by its key property and an edge by its endpoints.
+ */
+@Service
+public class GraphBulkLoader {
+
+    private final GraphTraversalSource g;
+
+    @Value("${graph.bulk-load.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    public GraphBulkLoader(GraphTraversalSource g) {
+        this.g = g;
+    }
+
+    /**
+     * Creates the vertices that do not exist yet; existing ones are left unchanged.
+     * @param rows vertex properties, each containing keyProperty
+     * @return graph id of every vertex by its key property value
+     */
+    public Map<Object, Object> upsertVertices(String label, String keyProperty, List<Map<String, Object>> rows) {
+        Map<Object, Object> ids = new HashMap<>();
+        List<Map<String, Object>> chunk = new ArrayList<>(Math.min(rows.size(), chunkSize));
+        for (Map<String, Object> row : rows) {
+            Map<Object, Object> match = new HashMap<>();
+            match.put(T.label, label);
+            match.put(keyProperty, row.get(keyProperty));
+            Map<Object, Object> create = new HashMap<>(row);
+            create.remove(keyProperty);
+            chunk.add(Map.<String, Object>of("match", match, "create", create));
+
+            if (chunk.size() == chunkSize) {
+                loadVertexChunk(chunk, keyProperty, ids);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            loadVertexChunk(chunk, keyProperty, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Creates the edges that do not exist yet between the given vertices; an existing edge with
+     * the same label and endpoints is left unchanged.
+     * @return number of edges processed
+     */
+    public int upsertEdges(String label, List<EdgeRow> rows) {
+        List<Map<String, Object>> chunk = new ArrayList<>(Math.min(rows.size(), chunkSize));
+        for (EdgeRow row : rows) {
+            Map<Object, Object> match = new HashMap<>();
+            match.put(T.label, label);
+            match.put(Direction.OUT, row.outVertexId());
+            match.put(Direction.IN, row.inVertexId());
+            chunk.add(Map.<String, Object>of("match", match, "create", new HashMap<Object, Object>(row.properties())));
+
+            if (chunk.size() == chunkSize) {
+                loadEdgeChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            loadEdgeChunk(chunk);
+        }
+        return rows.size();
+    }
+
+    private void loadVertexChunk(List<Map<String, Object>> chunk, String keyProperty, Map<Object, Object> ids) {
+        // Injected as a single Object so no generic varargs array is created
+        g.inject((Object) chunk).unfold().as("row")
+                .mergeV(__.select("row").<Map<Object, Object>>select("match"))
+                    .option(Merge.onCreate, __.select("row").<Map<Object, Object>>select("create"))
+                .project("key", "id")
+                    .by(keyProperty)
+                    .by(T.id)
+                .forEachRemaining(result -> ids.put(result.get("key"), result.get("id")));
+    }
+
+    private void loadEdgeChunk(List<Map<String, Object>> chunk) {
+        g.inject((Object) chunk).unfold().as("row")
+                .mergeE(__.select("row").<Map<Object, Object>>select("match"))
+                    .option(Merge.onCreate, __.select("row").<Map<Object, Object>>select("create"))
+                .iterate();
+    }
+
+    public record EdgeRow(Object outVertexId, Object inVertexId, Map<String, Object> properties) {
+    }
+}
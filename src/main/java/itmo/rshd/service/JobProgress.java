@@ -0,0 +1,40 @@
+package itmo.rshd.service;
+
+/**
+ * Progress sink handed to long-running operations so they can report work done
+ * and stop early when their job is cancelled.
+ */
+public interface JobProgress {
+
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void usersProcessed(long count) {
+        }
+
+        @Override
+        public void regionsUpdated(int count) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean enterPointOfNoReturn() {
+            return true;
+        }
+    };
+
+    void usersProcessed(long count);
+
+    void regionsUpdated(int count);
+
+    boolean isCancelled();
+
+    /**
+     * Called before work that must not stop halfway; cancellation is refused from then on.
+     * @return false if the job was already cancelled, in which case the caller must stop
+     */
+    boolean enterPointOfNoReturn();
+}
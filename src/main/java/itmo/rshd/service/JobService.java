@@ -0,0 +1,210 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.Job;
+import itmo.rshd.model.Job.JobStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long region-wide operations on a bounded executor instead of the HTTP thread.
+ * Jobs are kept in memory, their progress is pushed to /topic/job-progress, and
+ * finished jobs are evicted after the retention period.
+ */
+@Service
+public class JobService {
+
+    /**
+     * Work executed by a job. Returns a short human-readable outcome and throws
+     * CancellationException when it stops early because the job was cancelled.
+     */
+    @FunctionalInterface
+    public interface JobTask {
+        String run(JobProgress progress) throws Exception;
+    }
+
+    private final WebSocketService webSocketService;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Future<?>> futures = new ConcurrentHashMap<>();
+
+    @Value("${jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    public JobService(WebSocketService webSocketService,
+            @Value("${jobs.workers:2}") int workers,
+            @Value("${jobs.queue-capacity:20}") int queueCapacity) {
+        this.webSocketService = webSocketService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a job.
+     * @return the queued job, or empty if the queue is full
+     */
+    public Optional<Job> submit(String type, String targetId, JobTask task) {
+        Job job = new Job();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setTargetId(targetId);
+        job.setSubmittedAt(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+
+        try {
+            futures.put(job.getId(), executor.submit(() -> execute(job, task)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            System.err.println("Job queue is full, rejected " + type + " for " + targetId);
+            return Optional.empty();
+        }
+        publish(job);
+        return Optional.of(job);
+    }
+
+    public Optional<Job> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<Job> getJobs() {
+        List<Job> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(Job::getSubmittedAt).reversed());
+        return result;
+    }
+
+    /**
+     * Requests cancellation. A queued job never starts; a running job is only flagged and stops
+     * at its next cancellation check, so it is never interrupted in the middle of a write.
+     * @return false if the job had already finished or is past its point of no return
+     */
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        synchronized (job) {
+            if (job.isFinished() || !job.isCancellable()) {
+                return false;
+            }
+            job.setCancelRequested(true);
+            if (job.getStatus() == JobStatus.QUEUED) {
+                finish(job, JobStatus.CANCELLED, "Cancelled before start");
+                Future<?> future = futures.get(id);
+                if (future != null) {
+                    future.cancel(false);
+                }
+            } else {
+                job.setMessage("Cancellation requested");
+            }
+        }
+        publish(job);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.cleanup-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        Collection<Job> snapshot = new ArrayList<>(jobs.values());
+        for (Job job : snapshot) {
+            if (job.isFinished() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff)) {
+                jobs.remove(job.getId());
+                futures.remove(job.getId());
+            }
+        }
+    }
+
+    private void execute(Job job, JobTask task) {
+        synchronized (job) {
+            if (job.isFinished()) {
+                return;
+            }
+            job.setStatus(JobStatus.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+        }
+        publish(job);
+
+        JobProgress progress = new JobProgress() {
+            @Override
+            public void usersProcessed(long count) {
+                job.setUsersProcessed(job.getUsersProcessed() + count);
+                publish(job);
+            }
+
+            @Override
+            public void regionsUpdated(int count) {
+                job.setRegionsUpdated(job.getRegionsUpdated() + count);
+                publish(job);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return job.isCancelRequested() || Thread.currentThread().isInterrupted();
+            }
+
+            @Override
+            public boolean enterPointOfNoReturn() {
+                synchronized (job) {
+                    if (isCancelled()) {
+                        return false;
+                    }
+                    job.setCancellable(false);
+                    return true;
+                }
+            }
+        };
+
+        try {
+            finish(job, JobStatus.SUCCEEDED, task.run(progress));
+        } catch (CancellationException | InterruptedException e) {
+            finish(job, JobStatus.CANCELLED, "Cancelled while running");
+        } catch (Exception e) {
+            System.err.println("Job " + job.getId() + " (" + job.getType() + ") failed: " + e.getMessage());
+            finish(job, JobStatus.FAILED, e.getMessage());
+        } finally {
+            futures.remove(job.getId());
+        }
+        publish(job);
+    }
+
+    private void finish(Job job, JobStatus status, String message) {
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setFinishedAt(LocalDateTime.now());
+    }
+
+    private void publish(Job job) {
+        webSocketService.notifyJobProgress(job);
+    }
+}
@@ -0,0 +1,151 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.Missile;
+import itmo.rshd.model.Missile.MissileStatus;
+import itmo.rshd.model.Missile.MissileType;
+import itmo.rshd.repository.MissileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of the missile inventory, bucketed by type and status and ordered by range
+ * inside each bucket. The inventory changes rarely, so every read is served from memory;
+ * MissileService keeps it in sync on each write. Reads are lock-free, writes are serialized.
+ */
+@Service
+public class MissileInventoryIndex {
+
+    private static final Comparator<RangeKey> RANGE_ORDER = Comparator
+            .comparingDouble(RangeKey::range)
+            .thenComparing(RangeKey::missileId);
+
+    private final MissileRepository missileRepository;
+    private final FleetStatisticsService fleetStatisticsService;
+
+    private final Map<String, Missile> missilesById = new ConcurrentHashMap<>();
+    private final Map<MissileType, Map<MissileStatus, NavigableMap<RangeKey, Missile>>> buckets = new EnumMap<>(MissileType.class);
+
+    @Autowired
+    public MissileInventoryIndex(MissileRepository missileRepository, FleetStatisticsService fleetStatisticsService) {
+        this.missileRepository = missileRepository;
+        this.fleetStatisticsService = fleetStatisticsService;
+        for (MissileType type : MissileType.values()) {
+            Map<MissileStatus, NavigableMap<RangeKey, Missile>> byStatus = new EnumMap<>(MissileStatus.class);
+            for (MissileStatus status : MissileStatus.values()) {
+                byStatus.put(status, new ConcurrentSkipListMap<>(RANGE_ORDER));
+            }
+            buckets.put(type, byStatus);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        missilesById.clear();
+        buckets.values().forEach(byStatus -> byStatus.values().forEach(Map::clear));
+        // Fleet statistics rebuild themselves from an aggregation, so the bulk load does not feed them
+        for (Missile missile : missileRepository.findAll()) {
+            index(missile);
+        }
+        System.out.println("Missile inventory index built for " + missilesById.size() + " missiles.");
+    }
+
+    public synchronized void put(Missile missile) {
+        if (missile == null || missile.getId() == null) {
+            return;
+        }
+        Missile previous = missilesById.get(missile.getId());
+        if (previous != null && previous.versionOrZero() >= missile.versionOrZero()) {
+            // Writes are CAS on the version but reach the index in any order; keep the newer state
+            return;
+        }
+        index(missile);
+        fleetStatisticsService.apply(previous, missile);
+    }
+
+    public synchronized void remove(String missileId) {
+        Missile previous = missilesById.remove(missileId);
+        if (previous != null) {
+            removeFromBucket(previous);
+            fleetStatisticsService.apply(previous, null);
+        }
+    }
+
+    public List<Missile> findAll() {
+        return new ArrayList<>(missilesById.values());
+    }
+
+    public List<Missile> findByType(MissileType type) {
+        List<Missile> result = new ArrayList<>();
+        for (NavigableMap<RangeKey, Missile> bucket : buckets.get(type).values()) {
+            result.addAll(bucket.values());
+        }
+        return result;
+    }
+
+    public List<Missile> findByStatus(MissileStatus status) {
+        List<Missile> result = new ArrayList<>();
+        for (Map<MissileStatus, NavigableMap<RangeKey, Missile>> byStatus : buckets.values()) {
+            result.addAll(byStatus.get(status).values());
+        }
+        return result;
+    }
+
+    public List<Missile> findByTypeAndStatus(MissileType type, MissileStatus status) {
+        return new ArrayList<>(buckets.get(type).get(status).values());
+    }
+
+    /**
+     * Missiles of the given status whose range is at least minRange, shortest range first.
+     */
+    public List<Missile> findByStatusWithRangeAtLeast(MissileStatus status, double minRange) {
+        List<Missile> result = new ArrayList<>();
+        RangeKey from = new RangeKey(minRange, "");
+        for (Map<MissileStatus, NavigableMap<RangeKey, Missile>> byStatus : buckets.values()) {
+            result.addAll(byStatus.get(status).tailMap(from, true).values());
+        }
+        result.sort(Comparator.comparingDouble(Missile::getRange));
+        return result;
+    }
+
+    // Returns the entry the missile replaced, if any
+    private Missile index(Missile missile) {
+        Missile previous = missilesById.put(missile.getId(), missile);
+        if (previous != null) {
+            removeFromBucket(previous);
+        }
+        NavigableMap<RangeKey, Missile> bucket = bucketOrNull(missile.getType(), missile.getStatus());
+        if (bucket != null) {
+            bucket.put(new RangeKey(missile.getRange(), missile.getId()), missile);
+        }
+        return previous;
+    }
+
+    private void removeFromBucket(Missile missile) {
+        NavigableMap<RangeKey, Missile> bucket = bucketOrNull(missile.getType(), missile.getStatus());
+        if (bucket != null) {
+            bucket.remove(new RangeKey(missile.getRange(), missile.getId()));
+        }
+    }
+
+    // Documents with a missing type or status are tracked by id only
+    private NavigableMap<RangeKey, Missile> bucketOrNull(MissileType type, MissileStatus status) {
+        if (type == null || status == null) {
+            return null;
+        }
+        return buckets.get(type).get(status);
+    }
+
+    private record RangeKey(double range, String missileId) {
+    }
+}
@@ -0,0 +1,111 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.Missile;
+import itmo.rshd.model.Missile.MissileStatus;
+import itmo.rshd.model.websocket.MaintenanceScanSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Finds ready missiles whose maintenance is overdue and moves them to IN_MAINTENANCE.
+ * Each run is one scan over the (status, lastMaintenanceDate) index; due missiles are
+ * transitioned in batches with a single updateMany each, and a summary is broadcast.
+ */
+@Service
+public class MissileMaintenanceScanner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MissileInventoryIndex missileInventoryIndex;
+    private final WebSocketService webSocketService;
+
+    @Value("${missile.maintenance.interval-days:90}")
+    private long intervalDays;
+
+    @Value("${missile.maintenance.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public MissileMaintenanceScanner(MongoTemplate mongoTemplate, MissileInventoryIndex missileInventoryIndex,
+            WebSocketService webSocketService) {
+        this.mongoTemplate = mongoTemplate;
+        this.missileInventoryIndex = missileInventoryIndex;
+        this.webSocketService = webSocketService;
+    }
+
+    @Scheduled(cron = "${missile.maintenance.scan-cron:0 0 * * * *}")
+    public void scheduledScan() {
+        scan();
+    }
+
+    /**
+     * @return the summary of the run, or null if a scan is already in progress
+     */
+    public MaintenanceScanSummary scan() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            MaintenanceScanSummary summary = new MaintenanceScanSummary();
+            summary.setScannedAt(LocalDateTime.now());
+            summary.setDueBefore(summary.getScannedAt().minusDays(intervalDays));
+
+            // Never-maintained missiles are due as well
+            Query dueQuery = new Query(Criteria.where("status").is(MissileStatus.READY).orOperator(
+                    Criteria.where("lastMaintenanceDate").lt(summary.getDueBefore()),
+                    Criteria.where("lastMaintenanceDate").is(null)));
+            dueQuery.fields().include("id");
+            dueQuery.cursorBatchSize(batchSize);
+
+            try (Stream<Missile> due = mongoTemplate.stream(dueQuery, Missile.class)) {
+                Iterator<Missile> cursor = due.iterator();
+                List<String> batch = new ArrayList<>(batchSize);
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next().getId());
+                    summary.setDueCount(summary.getDueCount() + 1);
+                    if (batch.size() == batchSize || !cursor.hasNext()) {
+                        transition(batch, summary);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+
+            System.out.println("Maintenance scan found " + summary.getDueCount() + " overdue missiles, moved "
+                    + summary.getTransitionedCount() + " to maintenance.");
+            webSocketService.notifyMaintenanceScan(summary);
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void transition(List<String> missileIds, MaintenanceScanSummary summary) {
+        // The status filter makes the transition safe against concurrent changes since the scan read it
+        Query readyInBatch = new Query(Criteria.where("id").in(missileIds).and("status").is(MissileStatus.READY));
+        mongoTemplate.updateMulti(readyInBatch,
+                new Update().set("status", MissileStatus.IN_MAINTENANCE).set("lastMaintenanceDate", LocalDateTime.now())
+                        .inc("version", 1),
+                Missile.class);
+
+        Query transitioned = new Query(Criteria.where("id").in(missileIds).and("status").is(MissileStatus.IN_MAINTENANCE));
+        for (Missile missile : mongoTemplate.find(transitioned, Missile.class)) {
+            missileInventoryIndex.put(missile);
+            summary.setTransitionedCount(summary.getTransitionedCount() + 1);
+            summary.getTransitionedByType().merge(missile.getType(), 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.Missile;
+import itmo.rshd.model.Missile.MissileStatus;
+import itmo.rshd.model.Region;
+import itmo.rshd.repository.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which ready missiles can reach a region: a missile qualifies when its range covers
+ * the great-circle distance from its current location to the nearest point of the region's
+ * boundary (zero when it is already inside). Region footprints are cached and evicted
+ * when a save changes the region's boundaries or the region is deleted.
+ */
+@Service
+public class MissileReachabilityService {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final RegionRepository regionRepository;
+    private final MissileInventoryIndex missileInventoryIndex;
+
+    private final Map<String, Footprint> footprints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MissileReachabilityService(RegionRepository regionRepository, MissileInventoryIndex missileInventoryIndex) {
+        this.regionRepository = regionRepository;
+        this.missileInventoryIndex = missileInventoryIndex;
+    }
+
+    /**
+     * @return ready missiles with range at least minRange that can reach the region, nearest first;
+     *         empty if the region does not exist or has no boundaries
+     */
+    public List<Missile> findMissilesReaching(String regionId, double minRange) {
+        Optional<Footprint> footprintOpt = footprint(regionId);
+        if (footprintOpt.isEmpty()) {
+            return List.of();
+        }
+        Footprint footprint = footprintOpt.get();
+
+        List<Missile> reaching = new ArrayList<>();
+        Map<String, Double> distances = new HashMap<>();
+        for (Missile missile : missileInventoryIndex.findByStatusWithRangeAtLeast(MissileStatus.READY, minRange)) {
+            if (missile.getCurrentLocation() == null) {
+                continue;
+            }
+            double[] position = toUnitVector(missile.getCurrentLocation().getLatitude(), missile.getCurrentLocation().getLongitude());
+
+            // Cheap bound first: even the nearest possible boundary point is out of range
+            double toCenter = angle(position, footprint.center()) * EARTH_RADIUS_KM;
+            if (toCenter - footprint.radiusKm() > missile.getRange()) {
+                continue;
+            }
+
+            double distance = distanceToRegion(missile.getCurrentLocation().getLatitude(),
+                    missile.getCurrentLocation().getLongitude(), position, footprint);
+            if (distance <= missile.getRange()) {
+                reaching.add(missile);
+                distances.put(missile.getId(), distance);
+            }
+        }
+        reaching.sort(Comparator.comparingDouble(missile -> distances.get(missile.getId())));
+        return reaching;
+    }
+
+    public void evictRegion(String regionId) {
+        footprints.remove(regionId);
+    }
+
+    // Rating and population saves leave the boundaries alone, so they keep the cached footprint
+    public void onRegionSaved(Region region) {
+        Footprint cached = footprints.get(region.getId());
+        if (cached != null && !Objects.equals(cached.boundaries(), region.getBoundaries())) {
+            footprints.remove(region.getId(), cached);
+        }
+    }
+
+    private Optional<Footprint> footprint(String regionId) {
+        Footprint cached = footprints.get(regionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Footprint> loaded = regionRepository.findBoundariesById(regionId)
+                .map(Region::getBoundaries)
+                .flatMap(this::buildFootprint);
+        loaded.ifPresent(footprint -> footprints.put(regionId, footprint));
+        return loaded;
+    }
+
+    private Optional<Footprint> buildFootprint(GeoJsonPolygon polygon) {
+        List<double[][]> rings = new ArrayList<>();
+        for (GeoJsonLineString line : polygon.getCoordinates()) {
+            List<Point> points = line.getCoordinates();
+            double[][] ring = new double[points.size()][];
+            for (int i = 0; i < points.size(); i++) {
+                ring[i] = new double[]{points.get(i).getY(), points.get(i).getX()}; // lat, lon
+            }
+            if (ring.length > 1) {
+                rings.add(ring);
+            }
+        }
+        if (rings.isEmpty()) {
+            return Optional.empty();
+        }
+
+        double[] sum = new double[3];
+        for (double[] vertex : rings.get(0)) {
+            double[] unit = toUnitVector(vertex[0], vertex[1]);
+            sum[0] += unit[0];
+            sum[1] += unit[1];
+            sum[2] += unit[2];
+        }
+        double[] center = normalize(sum);
+        double radius = 0;
+        for (double[] vertex : rings.get(0)) {
+            radius = Math.max(radius, angle(center, toUnitVector(vertex[0], vertex[1])));
+        }
+        // A cap smaller than a hemisphere is convex, so the great-circle edges stay inside it;
+        // beyond that the bound proves nothing and is disabled
+        double radiusKm = radius < Math.PI / 2 ? radius * EARTH_RADIUS_KM : Double.MAX_VALUE;
+        return Optional.of(new Footprint(polygon, rings, center, radiusKm));
+    }
+
+    private double distanceToRegion(double latitude, double longitude, double[] position, Footprint footprint) {
+        if (contains(footprint.rings(), latitude, longitude)) {
+            return 0;
+        }
+        double nearest = Double.MAX_VALUE;
+        for (double[][] ring : footprint.rings()) {
+            for (int i = 0; i + 1 < ring.length; i++) {
+                double[] a = toUnitVector(ring[i][0], ring[i][1]);
+                double[] b = toUnitVector(ring[i + 1][0], ring[i + 1][1]);
+                nearest = Math.min(nearest, angleToArc(position, a, b) * EARTH_RADIUS_KM);
+            }
+        }
+        return nearest;
+    }
+
+    // Even-odd test in the lat/lon plane: inside the outer ring and outside every hole
+    private boolean contains(List<double[][]> rings, double latitude, double longitude) {
+        if (!ringContains(rings.get(0), latitude, longitude)) {
+            return false;
+        }
+        for (int h = 1; h < rings.size(); h++) {
+            if (ringContains(rings.get(h), latitude, longitude)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean ringContains(double[][] ring, double latitude, double longitude) {
+        boolean inside = false;
+        for (int i = 0, j = ring.length - 1; i < ring.length; j = i++) {
+            double latI = ring[i][0], lonI = ring[i][1];
+            double latJ = ring[j][0], lonJ = ring[j][1];
+            if ((latI > latitude) != (latJ > latitude)
+                    && longitude < (lonJ - lonI) * (latitude - latI) / (latJ - latI) + lonI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    // Angular distance from p to the great-circle arc a-b
+    private double angleToArc(double[] p, double[] a, double[] b) {
+        double[] normal = cross(a, b);
+        double normalLength = length(normal);
+        if (normalLength < 1e-12) {
+            return angle(p, a);
+        }
+        double[] n = scale(normal, 1 / normalLength);
+        double offPlane = dot(p, n);
+        double[] projected = normalize(new double[]{p[0] - offPlane * n[0], p[1] - offPlane * n[1], p[2] - offPlane * n[2]});
+        boolean withinArc = dot(cross(a, projected), n) >= 0 && dot(cross(projected, b), n) >= 0;
+        if (withinArc) {
+            return Math.asin(Math.min(1, Math.abs(offPlane)));
+        }
+        return Math.min(angle(p, a), angle(p, b));
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double angle(double[] u, double[] v) {
+        return Math.atan2(length(cross(u, v)), dot(u, v));
+    }
+
+    private static double[] cross(double[] u, double[] v) {
+        return new double[]{u[1] * v[2] - u[2] * v[1], u[2] * v[0] - u[0] * v[2], u[0] * v[1] - u[1] * v[0]};
+    }
+
+    private static double dot(double[] u, double[] v) {
+        return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+    }
+
+    private static double length(double[] u) {
+        return Math.sqrt(dot(u, u));
+    }
+
+    private static double[] scale(double[] u, double factor) {
+        return new double[]{u[0] * factor, u[1] * factor, u[2] * factor};
+    }
+
+    private static double[] normalize(double[] u) {
+        double len = length(u);
+        return len == 0 ? new double[]{1, 0, 0} : scale(u, 1 / len);
+    }
+
+    private record Footprint(GeoJsonPolygon boundaries, List<double[][]> rings, double[] center, double radiusKm) {
+    }
+}
@@ -3,120 +3,186 @@ package itmo.rshd.service;
 import itmo.rshd.model.Missile;
 import itmo.rshd.model.Missile.MissileStatus;
 import itmo.rshd.model.Missile.MissileType;
+import itmo.rshd.model.MissileTransitionResult;
 import itmo.rshd.model.Region;
 import itmo.rshd.repository.MissileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MissileService {
 
+    // Read-and-replace rounds for a full update that does not say which version it read
+    private static final int MAX_UNVERSIONED_UPDATE_ATTEMPTS = 3;
+
     private final MissileRepository missileRepository;
     private final RegionService regionService;
+    private final MissileInventoryIndex missileInventoryIndex;
+    private final MissileReachabilityService missileReachabilityService;
+    private final MongoTemplate mongoTemplate;
     @Autowired
     public MissileService(MissileRepository missileRepository, 
                           RegionService regionService,
-                          MissileSupplyGraphService missileSupplyGraphService) {
+                          MissileSupplyGraphService missileSupplyGraphService,
+                          MissileInventoryIndex missileInventoryIndex,
+                          MissileReachabilityService missileReachabilityService,
+                          MongoTemplate mongoTemplate) {
         this.missileRepository = missileRepository;
+        this.mongoTemplate = mongoTemplate;
         this.regionService = regionService;
+        this.missileInventoryIndex = missileInventoryIndex;
+        this.missileReachabilityService = missileReachabilityService;
     }
 
     public Missile createMissile(Missile missile) {
-        return missileRepository.save(missile);
+        Missile savedMissile = missileRepository.save(missile);
+        missileInventoryIndex.put(savedMissile);
+        return savedMissile;
     }
 
     public List<Missile> getAllMissiles() {
-        return missileRepository.findAll();
+        return missileInventoryIndex.findAll();
     }
 
     public Optional<Missile> getMissileById(String id) {
         return missileRepository.findById(id);
     }
 
-    public Missile updateMissile(Missile missile) {
-        return missileRepository.save(missile);
+    /**
+     * Replaces the missile only if it is still at the version the caller read, bumping the version
+     * so pending transitions that read the old one fail. A body without a version replaces whatever
+     * is stored: the current version is read and the replace retried if a write slips in between.
+     *
+     * @return the stored missile, or empty if it was modified or removed since it was read
+     */
+    public Optional<Missile> updateMissile(Missile missile) {
+        if (missile.getVersion() != null) {
+            return replaceAtVersion(missile, missile.getVersion());
+        }
+        for (int attempt = 0; attempt < MAX_UNVERSIONED_UPDATE_ATTEMPTS; attempt++) {
+            Optional<Missile> current = missileRepository.findById(missile.getId());
+            if (current.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Missile> saved = replaceAtVersion(missile, current.get().versionOrZero());
+            if (saved.isPresent()) {
+                return saved;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Missile> replaceAtVersion(Missile missile, long expectedVersion) {
+        Criteria expected = expectVersion(Criteria.where("id").is(missile.getId()), expectedVersion);
+        missile.setVersion(expectedVersion + 1);
+        Missile savedMissile = mongoTemplate.findAndReplace(new Query(expected), missile,
+                FindAndReplaceOptions.options().returnNew());
+        if (savedMissile == null) {
+            return Optional.empty();
+        }
+        missileInventoryIndex.put(savedMissile);
+        return Optional.of(savedMissile);
     }
 
     public void deleteMissile(String id) {
         missileRepository.deleteById(id);
+        missileInventoryIndex.remove(id);
     }
 
     public List<Missile> findMissilesByType(MissileType type) {
-        return missileRepository.findByType(type);
+        return missileInventoryIndex.findByType(type);
     }
 
     public List<Missile> findMissilesByStatus(MissileStatus status) {
-        return missileRepository.findByStatus(status);
+        return missileInventoryIndex.findByStatus(status);
     }
 
     public List<Missile> findReadyMissilesByType(MissileType type) {
-        return missileRepository.findReadyMissilesByType(type);
+        return missileInventoryIndex.findByTypeAndStatus(type, MissileStatus.READY);
     }
 
-    public boolean performMaintenance(String missileId) {
-        Optional<Missile> missileOpt = missileRepository.findById(missileId);
-        if (missileOpt.isPresent()) {
-            Missile missile = missileOpt.get();
-            missile.setStatus(MissileStatus.IN_MAINTENANCE);
-            missile.setLastMaintenanceDate(LocalDateTime.now());
-            missileRepository.save(missile);
-            return true;
-        }
-        return false;
+    public MissileTransitionResult performMaintenance(String missileId) {
+        return transition(missileId, EnumSet.allOf(MissileStatus.class), MissileStatus.IN_MAINTENANCE, true);
     }
 
-    public boolean deployMissile(String missileId, String targetRegionId) {
-        Optional<Missile> missileOpt = missileRepository.findById(missileId);
+    public MissileTransitionResult deployMissile(String missileId, String targetRegionId) {
         Optional<Region> regionOpt = regionService.getRegionById(targetRegionId);
-        
-        if (missileOpt.isPresent() && regionOpt.isPresent()) {
-            Missile missile = missileOpt.get();
-            Region targetRegion = regionOpt.get();
-            
-            // Check if missile is ready
-            if (missile.getStatus() != MissileStatus.READY) {
-                return false;
-            }
-            
-            // Check if region is eligible for targeting (low rating, no important persons)
-            if (!targetRegion.isUnderThreat()) {
-                return false;
-            }
-            
-            // Update missile status
-            missile.setStatus(MissileStatus.DEPLOYED);
-            missileRepository.save(missile);
-            
-            // In a real system, we would have additional logic for the actual "targeting" operation
-            // This is just a placeholder for the missile deployment logic
-            
-            return true;
+        if (regionOpt.isEmpty()) {
+            return MissileTransitionResult.NOT_FOUND;
+        }
+
+        // Check if region is eligible for targeting (low rating, no important persons)
+        if (!regionOpt.get().isUnderThreat()) {
+            return MissileTransitionResult.REJECTED;
         }
-        return false;
+
+        // In a real system, we would have additional logic for the actual "targeting" operation
+        // This is just a placeholder for the missile deployment logic
+        return transition(missileId, EnumSet.of(MissileStatus.READY), MissileStatus.DEPLOYED, false);
     }
 
+    /**
+     * Ready missiles whose range covers the distance from their location to the region's boundary,
+     * nearest first. minRange additionally filters out short-range missiles.
+     */
     public List<Missile> findMissilesForRegion(String regionId, double minRange) {
-        Optional<Region> regionOpt = regionService.getRegionById(regionId);
-        if (regionOpt.isPresent()) {
-            return missileRepository.findReadyMissilesWithRangeAtLeast(minRange);
-        }
-        return List.of();
+        return missileReachabilityService.findMissilesReaching(regionId, minRange);
     }
 
-    public boolean completeMaintenance(String missileId) {
+    public MissileTransitionResult completeMaintenance(String missileId) {
+        return transition(missileId, EnumSet.of(MissileStatus.IN_MAINTENANCE), MissileStatus.READY, false);
+    }
+
+    /**
+     * Moves a missile to a new status with a single conditional update on the status and version
+     * that were read, so concurrent callers cannot both win and no lock is held.
+     */
+    private MissileTransitionResult transition(String missileId, Set<MissileStatus> allowedFrom,
+            MissileStatus to, boolean startsMaintenance) {
         Optional<Missile> missileOpt = missileRepository.findById(missileId);
-        if (missileOpt.isPresent()) {
-            Missile missile = missileOpt.get();
-            if (missile.getStatus() == MissileStatus.IN_MAINTENANCE) {
-                missile.setStatus(MissileStatus.READY);
-                missileRepository.save(missile);
-                return true;
-            }
+        if (missileOpt.isEmpty()) {
+            return MissileTransitionResult.NOT_FOUND;
+        }
+        Missile current = missileOpt.get();
+        if (!allowedFrom.contains(current.getStatus())) {
+            return MissileTransitionResult.REJECTED;
+        }
+
+        Criteria expected = expectVersion(Criteria.where("id").is(missileId).and("status").is(current.getStatus()),
+                current.versionOrZero());
+        Update update = new Update().set("status", to).inc("version", 1);
+        if (startsMaintenance) {
+            update.set("lastMaintenanceDate", LocalDateTime.now());
+        }
+
+        Missile updated = mongoTemplate.findAndModify(new Query(expected), update,
+                FindAndModifyOptions.options().returnNew(true), Missile.class);
+        if (updated == null) {
+            return missileRepository.existsById(missileId)
+                    ? MissileTransitionResult.CONFLICT
+                    : MissileTransitionResult.NOT_FOUND;
+        }
+        missileInventoryIndex.put(updated);
+        return MissileTransitionResult.SUCCESS;
+    }
+
+    private static Criteria expectVersion(Criteria criteria, long version) {
+        if (version == 0) {
+            // Documents written before versioning have no version field yet
+            return criteria.and("version").in(0L, null);
         }
-        return false;
+        return criteria.and("version").is(version);
     }
-} 
\ No newline at end of file
+}
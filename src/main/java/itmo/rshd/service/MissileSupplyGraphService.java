@@ -1,40 +1,57 @@
 package itmo.rshd.service;
 
+import itmo.rshd.model.StockDelta;
+import itmo.rshd.model.SupplyCostFunction;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class MissileSupplyGraphService {
 
     private final GraphTraversalSource g;
+    private final SupplyNetworkIndex supplyNetworkIndex;
+    private final GraphBulkLoader graphBulkLoader;
+    private final SupplyGraphSchemaService supplyGraphSchemaService;
+    private final SupplyReachabilityService supplyReachabilityService;
+
+    @Value("${supply.stock.batch-size:200}")
+    private int stockBatchSize;
+
+    @Value("${supply.stock.max-retries:3}")
+    private int stockUpdateRetries;
 
     @Autowired
-    public MissileSupplyGraphService(GraphTraversalSource g) {
+    public MissileSupplyGraphService(GraphTraversalSource g, SupplyNetworkIndex supplyNetworkIndex,
+            GraphBulkLoader graphBulkLoader, SupplyGraphSchemaService supplyGraphSchemaService,
+            SupplyReachabilityService supplyReachabilityService) {
         this.g = g;
+        this.supplyNetworkIndex = supplyNetworkIndex;
+        this.graphBulkLoader = graphBulkLoader;
+        this.supplyGraphSchemaService = supplyGraphSchemaService;
+        this.supplyReachabilityService = supplyReachabilityService;
     }
 
     @PostConstruct
     public void initialize() {
-        // Create schema if needed
-        if (g.V().hasLabel("SupplyDepot").count().next() == 0) {
-            createInitialSchema();
-        }
-    }
-
-    private void createInitialSchema() {
-        // Create property keys and indices
-        // No transaction needed for remote graph
+        // Idempotent, so it also runs against an existing supply chain
+        supplyGraphSchemaService.ensureSchema();
     }
 
     public Vertex addSupplyDepot(String depotId, String name, double latitude, double longitude, int capacity) {
@@ -46,6 +63,8 @@ public class MissileSupplyGraphService {
                 .property("capacity", capacity)
                 .property("currentStock", 0)
                 .next();
+        supplyNetworkIndex.markStale();
+        supplyReachabilityService.invalidate();
         return depot;
     }
 
@@ -70,76 +89,136 @@ public class MissileSupplyGraphService {
                 .property("riskFactor", riskFactor)
                 .property("isActive", true)
                 .next();
+        supplyNetworkIndex.routeAdded(sourceDepotId, targetDepotId, distance, riskFactor);
+        supplyReachabilityService.onRouteAdded(route.id(), sourceDepotId, targetDepotId);
         return route;
     }
 
-    public void addMissilesToDepot(String depotId, String missileTypeId, int quantity) {
-        Vertex depot = g.V().has("SupplyDepot", "depotId", depotId).next();
-        Vertex missileType = g.V().has("MissileType", "missileTypeId", missileTypeId).next();
-        
-        // Check if there's already a supply relationship
-        if (g.V(depot).outE("Supplies").inV().is(missileType).hasNext()) {
-            // Update existing relationship
-            Object edgeObj = g.V(depot).outE("Supplies").as("e")
-                            .inV().is(missileType)
-                            .select("e")
-                            .next();
-                            
-            if (edgeObj instanceof Edge) {
-                Edge supply = (Edge) edgeObj;
-                Object quantityObj = supply.value("quantity");
-                int currentQuantity = quantityObj instanceof Number ? ((Number) quantityObj).intValue() : 0;
-                supply.property("quantity", currentQuantity + quantity);
+    /**
+     * @return the depot's new stock, or null if the depot or missile type does not exist
+     */
+    public Integer addMissilesToDepot(String depotId, String missileTypeId, int quantity) {
+        return applyStockDeltas(List.of(new StockDelta(depotId, missileTypeId, quantity))).get(depotId);
+    }
+
+    /**
+     * Applies stock changes with one server-side traversal per batch: the Supplies edge is
+     * upserted with choose and both its quantity and the depot's currentStock are incremented via the sack
+     * in place, so concurrent updates are not lost to a client-side read-modify-write.
+     * Deltas naming an unknown depot or missile type are skipped.
+     * @return the new stock of every depot that was updated
+     */
+    public Map<String, Integer> applyStockDeltas(List<StockDelta> deltas) {
+        Map<String, Integer> stocks = new HashMap<>();
+        for (int from = 0; from < deltas.size(); from += stockBatchSize) {
+            List<StockDelta> batch = deltas.subList(from, Math.min(deltas.size(), from + stockBatchSize));
+            stocks.putAll(applyStockBatch(batch));
+        }
+        supplyNetworkIndex.stocksChanged(stocks);
+        return stocks;
+    }
+
+    private Map<String, Integer> applyStockBatch(List<StockDelta> batch) {
+        List<Map<String, Object>> deltaMaps = new ArrayList<>(batch.size());
+        Set<String> depotIds = new HashSet<>();
+        Set<String> missileTypeIds = new HashSet<>();
+        for (StockDelta delta : batch) {
+            if (delta.getDepotId() == null || delta.getMissileTypeId() == null) {
+                continue;
+            }
+            deltaMaps.add(Map.of(
+                    "depotId", delta.getDepotId(),
+                    "missileTypeId", delta.getMissileTypeId(),
+                    "quantity", delta.getQuantity()));
+            depotIds.add(delta.getDepotId());
+            missileTypeIds.add(delta.getMissileTypeId());
+        }
+        if (deltaMaps.isEmpty()) {
+            return Map.of();
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Map<String, Integer> stocks = new HashMap<>();
+                g.withSack(0).withSideEffect("deltas", deltaMaps)
+                        .V().has("MissileType", "missileTypeId", P.within(missileTypeIds)).aggregate("types").fold()
+                        .V().has("SupplyDepot", "depotId", P.within(depotIds)).as("d")
+                        .select("deltas").unfold().as("delta")
+                            .where(P.eq("d")).by(__.select("depotId")).by("depotId")
+                        .select("types").unfold().as("t")
+                            .where(P.eq("delta")).by("missileTypeId").by(__.select("missileTypeId"))
+                        .choose(suppliesEdge(),
+                                suppliesEdge().limit(1),
+                                __.<Object>addE("Supplies").from("d").to("t").property("quantity", 0))
+                        .sack(Operator.assign).by("quantity")
+                        .sack(Operator.sum).by(__.select("delta").select("quantity"))
+                        .property("quantity", __.sack())
+                        .select("d")
+                        .sack(Operator.assign).by("currentStock")
+                        .sack(Operator.sum).by(__.select("delta").select("quantity"))
+                        .property("currentStock", __.sack())
+                        .barrier()
+                        .dedup()
+                        .project("depotId", "currentStock")
+                            .by("depotId")
+                            .by("currentStock")
+                        .forEachRemaining(result -> stocks.put((String) result.get("depotId"),
+                                ((Number) result.get("currentStock")).intValue()));
+                return stocks;
+            } catch (RuntimeException e) {
+                // currentStock and quantity are LOCK-consistent, so a concurrent writer fails the transaction
+                if (!isLockConflict(e) || attempt >= stockUpdateRetries) {
+                    throw e;
+                }
+                System.out.println("Stock update conflicted, retrying: " + e.getMessage());
             }
-        } else {
-            // Create new relationship
-            g.addE("Supplies")
-                .from(depot)
-                .to(missileType)
-                .property("quantity", quantity)
-                .iterate();
         }
-        
-        // Update current stock
-        Object stockObj = g.V(depot).values("currentStock").next();
-        int currentStock = stockObj instanceof Number ? ((Number) stockObj).intValue() : 0;
-        g.V(depot).property("currentStock", currentStock + quantity).iterate();
     }
 
-    public List<Map<String, Object>> findOptimalSupplyRoute(String fromDepotId, String toDepotId) {
-        try {
-            // Find shortest path with lowest risk between depots
-            List<Object> path = g.V().has("SupplyDepot", "depotId", fromDepotId)
-                    .repeat(
-                        __.outE("SupplyRoute").has("isActive", true)
-                        .order().by("riskFactor", org.apache.tinkerpop.gremlin.process.traversal.Order.asc)
-                        .inV().simplePath()
-                    ).until(
-                        __.has("SupplyDepot", "depotId", toDepotId)
-                    ).path().limit(1)
-                    .next()
-                    .objects();
-            
-            return path.stream()
-                    .map(object -> {
-                        Map<String, Object> result = new HashMap<>();
-                        if (object instanceof Vertex) {
-                            Vertex v = (Vertex) object;
-                            result.put("type", "depot");
-                            result.put("id", v.value("depotId"));
-                            result.put("name", v.value("name"));
-                        } else if (object instanceof Edge) {
-                            Edge e = (Edge) object;
-                            result.put("type", "route");
-                            result.put("distance", e.value("distance"));
-                            result.put("riskFactor", e.value("riskFactor"));
-                        }
-                        return result;
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            return List.of();
+    // The server reports lock failures as text, so the cause chain is matched by class name and message
+    private static boolean isLockConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (cause.getClass().getSimpleName().endsWith("LockingException")
+                    || (message != null && (message.contains("LockingException")
+                            || message.contains("Local lock contention")
+                            || message.contains("Lock expired")
+                            || message.contains("Expected value mismatch")))) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    // Existing Supplies edge from the depot labelled "d" to the missile type labelled "t"
+    private static GraphTraversal<Object, Edge> suppliesEdge() {
+        return __.<Object, Vertex>select("d").outE("Supplies").where(__.inV().as("t"));
+    }
+
+    public List<Map<String, Object>> findOptimalSupplyRoute(String fromDepotId, String toDepotId) {
+        return findOptimalSupplyRoute(fromDepotId, toDepotId, null);
+    }
+
+    /**
+     * Cheapest path over active routes, computed on the in-process copy of the supply network.
+     * @param costFunction how routes are weighted, null for the configured default
+     */
+    public List<Map<String, Object>> findOptimalSupplyRoute(String fromDepotId, String toDepotId,
+            SupplyCostFunction costFunction) {
+        return supplyNetworkIndex.findShortestPath(fromDepotId, toDepotId, costFunction);
+    }
+
+    public Map<String, Object> getRouteCacheStats() {
+        return supplyNetworkIndex.getPathCacheStats();
+    }
+
+    /**
+     * Fallback paths for when a route on the optimal one is deactivated; see SupplyNetworkIndex.
+     */
+    public List<Map<String, Object>> findAlternativeSupplyRoutes(String fromDepotId, String toDepotId, int k,
+            SupplyCostFunction costFunction, Double distanceWeight, Double riskWeight, Double capacityWeight) {
+        return supplyNetworkIndex.findAlternativePaths(fromDepotId, toDepotId, k, costFunction,
+                distanceWeight, riskWeight, capacityWeight);
     }
 
     public List<Map<String, Object>> findDepotsWithMissileType(String missileTypeId, int minQuantity) {
@@ -204,105 +283,62 @@ public class MissileSupplyGraphService {
     }
     
     public List<Map<String, Object>> getAllSupplyRoutes() {
+        return getSupplyRoutes(0, 0);
+    }
+
+    /**
+     * Lists supply routes with a single traversal that projects each edge together with the
+     * depot ids of its endpoints. Routes are ordered by source and target depot so pages are stable.
+     * @param limit maximum number of routes to return, 0 for all
+     */
+    public List<Map<String, Object>> getSupplyRoutes(int offset, int limit) {
         try {
-            System.out.println("Getting all supply routes...");
-            
-            // Try to count edges first
-            long edgeCount = g.E().hasLabel("SupplyRoute").count().next();
-            System.out.println("Supply route edge count: " + edgeCount);
-            
-            // Use a different approach: get edges with their connected vertices
-            List<Map<String, Object>> routes = new ArrayList<>();
-            
-            // Get all depots first
-            Map<Object, Vertex> depotMap = new HashMap<>();
-            List<Vertex> allDepots = g.V().hasLabel("SupplyDepot").toList();
-            for (Vertex depot : allDepots) {
-                try {
-                    Object depotId = depot.value("depotId");
-                    depotMap.put(depotId, depot);
-                    System.out.println("Added depot to map: " + depotId + " - " + depot.id());
-                } catch (Exception e) {
-                    System.err.println("Error getting depot ID: " + e.getMessage());
-                }
+            GraphTraversal<Edge, Map<String, Object>> traversal = g.E().hasLabel("SupplyRoute")
+                    .order()
+                        .by(__.outV().values("depotId"))
+                        .by(__.inV().values("depotId"))
+                    .project("sourceDepotId", "targetDepotId", "properties")
+                        .by(__.outV().values("depotId"))
+                        .by(__.inV().values("depotId"))
+                        .by(__.valueMap());
+            if (limit > 0) {
+                traversal = traversal.range(offset, (long) offset + limit);
+            } else if (offset > 0) {
+                traversal = traversal.skip(offset);
             }
-            
-            // Create routes directly from pairs of depots
-            for (Vertex source : allDepots) {
-                for (Vertex target : allDepots) {
-                    if (source != target) {
-                        try {
-                            // Check if an edge exists between these depots
-                            List<Edge> connectingEdges = g.V(source).outE("SupplyRoute").where(__.inV().is(target)).toList();
-                            
-                            if (!connectingEdges.isEmpty()) {
-                                Edge edge = connectingEdges.get(0);
-                                System.out.println("Found edge: " + edge.id() + " from " + source.value("name") + " to " + target.value("name"));
-                                
-                                // Create route map
-                                Map<String, Object> routeMap = new HashMap<>();
-                                routeMap.put("sourceDepotId", source.value("depotId"));
-                                routeMap.put("targetDepotId", target.value("depotId"));
-                                
-                                // Get edge properties with safe access
-                                double distance = getEdgePropertySafe(edge, "distance", 1000.0);
-                                double riskFactor = getEdgePropertySafe(edge, "riskFactor", 0.5);
-                                boolean isActive = getEdgePropertySafe(edge, "isActive", true);
-                                
-                                routeMap.put("distance", distance);
-                                routeMap.put("riskFactor", riskFactor);
-                                routeMap.put("isActive", isActive);
-                                
-                                // Optional properties
-                                String transportType = getEdgePropertySafe(edge, "transportType", null);
-                                if (transportType != null) {
-                                    routeMap.put("transportType", transportType);
-                                }
-                                
-                                String securityLevel = getEdgePropertySafe(edge, "securityLevel", null);
-                                if (securityLevel != null) {
-                                    routeMap.put("securityLevel", securityLevel);
-                                }
-                                
-                                Integer capacity = getEdgePropertySafe(edge, "capacity", null);
-                                if (capacity != null) {
-                                    routeMap.put("capacity", capacity);
-                                }
-                                
-                                routes.add(routeMap);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Error checking edge between depots: " + e.getMessage());
-                        }
-                    }
-                }
+
+            // Results arrive in driver batches; convert them as they stream in
+            List<Map<String, Object>> routes = new ArrayList<>();
+            while (traversal.hasNext()) {
+                Map<String, Object> row = traversal.next();
+                @SuppressWarnings("unchecked")
+                Map<Object, Object> properties = (Map<Object, Object>) row.get("properties");
+                routes.add(toRouteMap(row.get("sourceDepotId"), row.get("targetDepotId"), properties));
             }
-            
-            System.out.println("Returning " + routes.size() + " routes");
             return routes;
-            
         } catch (Exception e) {
             System.err.println("Error getting supply routes: " + e.getMessage());
             e.printStackTrace();
             return new ArrayList<>();
         }
     }
-    
-    // Helper method to safely get edge properties with default values
-    @SuppressWarnings("unchecked")
-    private <T> T getEdgePropertySafe(Edge edge, String key, T defaultValue) {
-        try {
-            if (edge.properties(key).hasNext()) {
-                Object value = edge.value(key);
-                if (defaultValue != null && value.getClass().isAssignableFrom(defaultValue.getClass())) {
-                    return (T) value;
-                }
-                return (T) value;
+
+    private Map<String, Object> toRouteMap(Object sourceDepotId, Object targetDepotId, Map<Object, Object> properties) {
+        Map<String, Object> routeMap = new HashMap<>();
+        routeMap.put("sourceDepotId", sourceDepotId);
+        routeMap.put("targetDepotId", targetDepotId);
+        routeMap.put("distance", properties.getOrDefault("distance", 1000.0));
+        routeMap.put("riskFactor", properties.getOrDefault("riskFactor", 0.5));
+        routeMap.put("isActive", properties.getOrDefault("isActive", true));
+
+        // Optional properties
+        for (String key : List.of("transportType", "securityLevel", "capacity")) {
+            Object value = properties.get(key);
+            if (value != null) {
+                routeMap.put(key, value);
             }
-        } catch (Exception e) {
-            System.out.println("Error getting property " + key + ": " + e.getMessage());
         }
-        return defaultValue;
+        return routeMap;
     }
     
     public Map<String, Object> updateRouteStatus(String sourceDepotId, String targetDepotId, boolean isActive) {
@@ -327,6 +363,8 @@ public class MissileSupplyGraphService {
             
             Edge route = edges.get(0);
             g.E(route.id()).property("isActive", isActive).iterate();
+            supplyNetworkIndex.setRouteActive(route.id(), isActive);
+            supplyReachabilityService.onRouteStatusChanged(route.id(), sourceDepotId, targetDepotId, isActive);
             
             Map<String, Object> routeMap = new HashMap<>();
             routeMap.put("sourceDepotId", sourceDepotId);
@@ -366,6 +404,8 @@ public class MissileSupplyGraphService {
         // Then clear all vertices
         g.V().hasLabel("SupplyDepot").drop().iterate();
         g.V().hasLabel("MissileType").drop().iterate();
+        supplyNetworkIndex.networkCleared();
+        supplyReachabilityService.invalidate();
         
         System.out.println("Supply chain data has been cleared successfully");
     }
@@ -382,121 +422,45 @@ public class MissileSupplyGraphService {
             // First clear any existing data
             clearSupplyChain();
             
-            // Create hub depots
-            Vertex moscowHub = g.addV("SupplyDepot")
-                .property("depotId", "HUB-001")
-                .property("name", "Moscow Hub")
-                .property("type", "REGIONAL_HUB")
-                .property("latitude", 55.7558)
-                .property("longitude", 37.6173)
-                .property("capacity", 10000)
-                .property("currentStock", 8500)
-                .property("securityLevel", "HIGH")
-                .next();
-            
-            Vertex spbHub = g.addV("SupplyDepot")
-                .property("depotId", "HUB-002")
-                .property("name", "St. Petersburg Hub")
-                .property("type", "REGIONAL_HUB")
-                .property("latitude", 59.9343)
-                .property("longitude", 30.3351)
-                .property("capacity", 8000)
-                .property("currentStock", 7300)
-                .property("securityLevel", "HIGH")
-                .next();
-            
-            Vertex novosibirskHub = g.addV("SupplyDepot")
-                .property("depotId", "HUB-003")
-                .property("name", "Novosibirsk Hub")
-                .property("type", "REGIONAL_HUB")
-                .property("latitude", 55.0084)
-                .property("longitude", 82.9357)
-                .property("capacity", 9000)
-                .property("currentStock", 7040)
-                .property("securityLevel", "HIGH")
-                .next();
-            
-            // Create city depots
-            Vertex kazan = g.addV("SupplyDepot")
-                .property("depotId", "DEPOT-001")
-                .property("name", "Kazan City Depot")
-                .property("type", "CITY_DEPOT")
-                .property("latitude", 55.7887)
-                .property("longitude", 49.1221)
-                .property("capacity", 3000)
-                .property("currentStock", 2000)
-                .property("securityLevel", "MEDIUM")
-                .next();
-            
-            Vertex samara = g.addV("SupplyDepot")
-                .property("depotId", "DEPOT-002")
-                .property("name", "Samara City Depot")
-                .property("type", "CITY_DEPOT")
-                .property("latitude", 53.1950)
-                .property("longitude", 50.1069)
-                .property("capacity", 2500)
-                .property("currentStock", 1800)
-                .property("securityLevel", "MEDIUM")
-                .next();
-            
-            Vertex vladivostok = g.addV("SupplyDepot")
-                .property("depotId", "DEPOT-003")
-                .property("name", "Vladivostok City Depot")
-                .property("type", "CITY_DEPOT")
-                .property("latitude", 43.1198)
-                .property("longitude", 131.8869)
-                .property("capacity", 2800)
-                .property("currentStock", 2100)
-                .property("securityLevel", "MEDIUM")
-                .next();
-            
-            // Create distribution points
-            Vertex podolsk = g.addV("SupplyDepot")
-                .property("depotId", "DIST-001")
-                .property("name", "Podolsk Distribution Point")
-                .property("type", "DISTRIBUTION_POINT")
-                .property("latitude", 55.4312)
-                .property("longitude", 37.5447)
-                .property("capacity", 600)
-                .property("currentStock", 400)
-                .property("securityLevel", "STANDARD")
-                .next();
-            
-            Vertex pushkin = g.addV("SupplyDepot")
-                .property("depotId", "DIST-002")
-                .property("name", "Pushkin Distribution Point")
-                .property("type", "DISTRIBUTION_POINT")
-                .property("latitude", 59.7241)
-                .property("longitude", 30.4095)
-                .property("capacity", 700)
-                .property("currentStock", 450)
-                .property("securityLevel", "STANDARD")
-                .next();
+            List<Map<String, Object>> depots = List.of(
+                sampleDepot("HUB-001", "Moscow Hub", "REGIONAL_HUB", 55.7558, 37.6173, 10000, 8500, "HIGH"),
+                sampleDepot("HUB-002", "St. Petersburg Hub", "REGIONAL_HUB", 59.9343, 30.3351, 8000, 7300, "HIGH"),
+                sampleDepot("HUB-003", "Novosibirsk Hub", "REGIONAL_HUB", 55.0084, 82.9357, 9000, 7040, "HIGH"),
+                sampleDepot("DEPOT-001", "Kazan City Depot", "CITY_DEPOT", 55.7887, 49.1221, 3000, 2000, "MEDIUM"),
+                sampleDepot("DEPOT-002", "Samara City Depot", "CITY_DEPOT", 53.1950, 50.1069, 2500, 1800, "MEDIUM"),
+                sampleDepot("DEPOT-003", "Vladivostok City Depot", "CITY_DEPOT", 43.1198, 131.8869, 2800, 2100, "MEDIUM"),
+                sampleDepot("DIST-001", "Podolsk Distribution Point", "DISTRIBUTION_POINT", 55.4312, 37.5447, 600, 400, "STANDARD"),
+                sampleDepot("DIST-002", "Pushkin Distribution Point", "DISTRIBUTION_POINT", 59.7241, 30.4095, 700, 450, "STANDARD"));
+            Map<Object, Object> vertexIds = graphBulkLoader.upsertVertices("SupplyDepot", "depotId", depots);
             
             System.out.println("Created all depots, now creating routes...");
             
+            List<GraphBulkLoader.EdgeRow> routes = new ArrayList<>();
+            
             // Connect hubs to each other
-            addSupplyRouteWithProperties(moscowHub, spbHub, 700.0, 0.2);
-            addSupplyRouteWithProperties(moscowHub, novosibirskHub, 3000.0, 0.4);
-            addSupplyRouteWithProperties(spbHub, novosibirskHub, 3200.0, 0.5);
+            routes.add(sampleRoute(vertexIds, "HUB-001", "HUB-002", 700.0, 0.2));
+            routes.add(sampleRoute(vertexIds, "HUB-001", "HUB-003", 3000.0, 0.4));
+            routes.add(sampleRoute(vertexIds, "HUB-002", "HUB-003", 3200.0, 0.5));
             
             // Connect hubs to city depots
-            addSupplyRouteWithProperties(moscowHub, kazan, 800.0, 0.3);
-            addSupplyRouteWithProperties(moscowHub, samara, 1000.0, 0.3);
-            addSupplyRouteWithProperties(novosibirskHub, vladivostok, 5000.0, 0.6);
+            routes.add(sampleRoute(vertexIds, "HUB-001", "DEPOT-001", 800.0, 0.3));
+            routes.add(sampleRoute(vertexIds, "HUB-001", "DEPOT-002", 1000.0, 0.3));
+            routes.add(sampleRoute(vertexIds, "HUB-003", "DEPOT-003", 5000.0, 0.6));
             
             // Add more connections between city depots
-            addSupplyRouteWithProperties(kazan, samara, 400.0, 0.2);
-            addSupplyRouteWithProperties(spbHub, kazan, 1500.0, 0.4);
-            addSupplyRouteWithProperties(spbHub, samara, 1800.0, 0.5);
+            routes.add(sampleRoute(vertexIds, "DEPOT-001", "DEPOT-002", 400.0, 0.2));
+            routes.add(sampleRoute(vertexIds, "HUB-002", "DEPOT-001", 1500.0, 0.4));
+            routes.add(sampleRoute(vertexIds, "HUB-002", "DEPOT-002", 1800.0, 0.5));
             
             // Connect city depots to distribution points
-            addSupplyRouteWithProperties(samara, podolsk, 950.0, 0.3);
-            addSupplyRouteWithProperties(kazan, pushkin, 1200.0, 0.35);
+            routes.add(sampleRoute(vertexIds, "DEPOT-002", "DIST-001", 950.0, 0.3));
+            routes.add(sampleRoute(vertexIds, "DEPOT-001", "DIST-002", 1200.0, 0.35));
             
             // Add more connections between distribution points and hubs
-            addSupplyRouteWithProperties(moscowHub, podolsk, 50.0, 0.1);
-            addSupplyRouteWithProperties(spbHub, pushkin, 30.0, 0.1);
+            routes.add(sampleRoute(vertexIds, "HUB-001", "DIST-001", 50.0, 0.1));
+            routes.add(sampleRoute(vertexIds, "HUB-002", "DIST-002", 30.0, 0.1));
+            
+            graphBulkLoader.upsertEdges("SupplyRoute", routes);
             
             System.out.println("Created all routes");
             
@@ -507,18 +471,22 @@ public class MissileSupplyGraphService {
             
             try {
                 // Add missiles to depots
-                addMissilesToDepot("HUB-001", "MT001", 100);
-                addMissilesToDepot("HUB-001", "MT002", 50);
-                addMissilesToDepot("HUB-002", "MT001", 80);
-                addMissilesToDepot("HUB-003", "MT003", 40);
+                applyStockDeltas(List.of(
+                    new StockDelta("HUB-001", "MT001", 100),
+                    new StockDelta("HUB-001", "MT002", 50),
+                    new StockDelta("HUB-002", "MT001", 80),
+                    new StockDelta("HUB-003", "MT003", 40)));
             } catch (Exception e) {
                 System.err.println("Error adding missiles to depots: " + e.getMessage());
             }
             
+            // Routes were added in bulk without per-route notifications, so cached paths are dropped too
+            supplyNetworkIndex.networkCleared();
+            supplyReachabilityService.invalidate();
             System.out.println("Sample supply chain generated successfully!");
             
             // Return total count of depots
-            return 8;
+            return depots.size();
         } catch (Exception e) {
             System.err.println("Error generating sample supply chain: " + e.getMessage());
             e.printStackTrace();
@@ -539,34 +507,30 @@ public class MissileSupplyGraphService {
         }
     }
     
-    private Edge addSupplyRouteWithProperties(Vertex source, Vertex target, double distance, double riskFactor) {
-        try {
-            System.out.println("Creating route from " + source.value("name") + " to " + target.value("name"));
-            
-            // Explicitly commit before adding the edge
-            Edge edge = g.addE("SupplyRoute")
-                .from(source)
-                .to(target)
-                .property("distance", distance)
-                .property("riskFactor", riskFactor)
-                .property("isActive", true)
-                .property("transportType", getTransportTypeByRisk(riskFactor))
-                .property("securityLevel", getSecurityLevelByRisk(riskFactor))
-                .property("capacity", getCapacityByDistance(distance))
-                .next();
-                
-            System.out.println("Successfully created route: " + edge.id());
-            
-            // Verify the edge was created
-            boolean exists = g.E(edge.id()).hasNext();
-            System.out.println("Edge exists after creation: " + exists);
-            
-            return edge;
-        } catch (Exception e) {
-            System.err.println("Error creating route from " + source.value("name") + " to " + target.value("name") + ": " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+    private Map<String, Object> sampleDepot(String depotId, String name, String type, double latitude,
+            double longitude, int capacity, int currentStock, String securityLevel) {
+        Map<String, Object> depot = new HashMap<>();
+        depot.put("depotId", depotId);
+        depot.put("name", name);
+        depot.put("type", type);
+        depot.put("latitude", latitude);
+        depot.put("longitude", longitude);
+        depot.put("capacity", capacity);
+        depot.put("currentStock", currentStock);
+        depot.put("securityLevel", securityLevel);
+        return depot;
+    }
+    
+    private GraphBulkLoader.EdgeRow sampleRoute(Map<Object, Object> vertexIds, String sourceDepotId,
+            String targetDepotId, double distance, double riskFactor) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("distance", distance);
+        properties.put("riskFactor", riskFactor);
+        properties.put("isActive", true);
+        properties.put("transportType", getTransportTypeByRisk(riskFactor));
+        properties.put("securityLevel", getSecurityLevelByRisk(riskFactor));
+        properties.put("capacity", getCapacityByDistance(distance));
+        return new GraphBulkLoader.EdgeRow(vertexIds.get(sourceDepotId), vertexIds.get(targetDepotId), properties);
     }
     
     private String getTransportTypeByRisk(double riskFactor) {
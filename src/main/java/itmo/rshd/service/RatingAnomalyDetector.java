@@ -0,0 +1,131 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.websocket.RatingAnomalyAlert;
+import itmo.rshd.util.SlidingWindowCountMinSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming detector for rating bursts. Every rating event is counted per rater,
+ * per target and per rater-target pair in sliding-window count-min sketches, and
+ * judged before it reaches the database. Memory stays fixed however many users rate.
+ */
+@Service
+public class RatingAnomalyDetector {
+
+    // Alert times kept for de-duplication; the least recently seen is evicted beyond this, expired or not
+    private static final int MAX_REMEMBERED_ALERTS = 10000;
+
+    public enum Verdict {
+        ALLOW, // Normal traffic
+        FLAG,  // Suspicious, applied but reported
+        SHED   // Abusive burst, dropped before any write
+    }
+
+    private final WebSocketService webSocketService;
+
+    private final SlidingWindowCountMinSketch raterSketch;
+    private final SlidingWindowCountMinSketch targetSketch;
+    private final SlidingWindowCountMinSketch pairSketch;
+
+    // Time of the last alert per source, key and verdict, so each crossing is reported once per window.
+    // An evicted key may alert again within its window, which keeps memory fixed during a wide burst.
+    private final Map<String, Long> lastAlerts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_REMEMBERED_ALERTS;
+        }
+    };
+
+    @Value("${rating.anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rating.anomaly.rater.flag-threshold:60}")
+    private int raterFlagThreshold;
+
+    @Value("${rating.anomaly.rater.shed-threshold:120}")
+    private int raterShedThreshold;
+
+    @Value("${rating.anomaly.target.flag-threshold:300}")
+    private int targetFlagThreshold;
+
+    @Value("${rating.anomaly.target.shed-threshold:600}")
+    private int targetShedThreshold;
+
+    @Value("${rating.anomaly.pair.flag-threshold:5}")
+    private int pairFlagThreshold;
+
+    @Value("${rating.anomaly.pair.shed-threshold:10}")
+    private int pairShedThreshold;
+
+    @Autowired
+    public RatingAnomalyDetector(WebSocketService webSocketService,
+            @Value("${rating.anomaly.window-ms:60000}") long windowMillis,
+            @Value("${rating.anomaly.buckets:6}") int buckets,
+            @Value("${rating.anomaly.sketch-width:4096}") int width,
+            @Value("${rating.anomaly.sketch-depth:4}") int depth) {
+        this.webSocketService = webSocketService;
+        this.raterSketch = new SlidingWindowCountMinSketch(width, depth, buckets, windowMillis);
+        this.targetSketch = new SlidingWindowCountMinSketch(width, depth, buckets, windowMillis);
+        this.pairSketch = new SlidingWindowCountMinSketch(width, depth, buckets, windowMillis);
+    }
+
+    /**
+     * Counts a rating event and decides what to do with it.
+     * Shed events are still counted, so a sender that keeps bursting stays shed.
+     */
+    public Verdict check(String raterId, String targetId) {
+        if (!enabled || raterId == null || targetId == null) {
+            return Verdict.ALLOW;
+        }
+        long now = System.currentTimeMillis();
+
+        Verdict verdict = count("RATER", raterId, raterSketch, now, raterFlagThreshold, raterShedThreshold);
+        verdict = worst(verdict, count("TARGET", targetId, targetSketch, now,
+                targetFlagThreshold, targetShedThreshold));
+        String pairKey = raterId + "->" + targetId;
+        verdict = worst(verdict, count("PAIR", pairKey, pairSketch, now, pairFlagThreshold, pairShedThreshold));
+        return verdict;
+    }
+
+    private Verdict count(String source, String key, SlidingWindowCountMinSketch sketch, long now,
+            int flagThreshold, int shedThreshold) {
+        int previous = sketch.estimate(key, now);
+        int count = sketch.add(key, now);
+        Verdict verdict = count > shedThreshold ? Verdict.SHED
+                : count > flagThreshold ? Verdict.FLAG
+                : Verdict.ALLOW;
+
+        // Estimates can jump past a threshold on collisions or drop as buckets expire, so alert on
+        // the crossing rather than on an exact count
+        boolean crossed = previous <= shedThreshold && count > shedThreshold
+                || previous <= flagThreshold && count > flagThreshold;
+        if (crossed && firstInWindow(source, key, verdict, now, sketch.getWindowMillis())) {
+            System.out.println("Rating anomaly: " + source + " " + key + " reached " + count
+                    + " ratings in window, verdict " + verdict);
+            webSocketService.notifyRatingAnomaly(new RatingAnomalyAlert(source, key, count,
+                    sketch.getWindowMillis() / 1000, verdict.name()));
+        }
+        return verdict;
+    }
+
+    private boolean firstInWindow(String source, String key, Verdict verdict, long now, long windowMillis) {
+        String alertKey = source + ":" + verdict + ":" + key;
+        synchronized (lastAlerts) {
+            Long alertedAt = lastAlerts.get(alertKey);
+            if (alertedAt != null && alertedAt > now - windowMillis) {
+                return false;
+            }
+            lastAlerts.put(alertKey, now);
+            return true;
+        }
+    }
+
+    private Verdict worst(Verdict a, Verdict b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
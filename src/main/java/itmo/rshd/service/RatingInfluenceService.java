@@ -0,0 +1,277 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.InfluenceScore;
+import itmo.rshd.model.RegionInfluence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Records who liked whom as weighted rater -> target edges and ranks users by
+ * influence with a weighted PageRank: a user is influential when influential users like them.
+ * Edges live in a local adjacency store of primitive arrays; the iteration runs on a
+ * dedicated fork/join pool. The store is in-memory and starts empty after a restart.
+ */
+@Service
+public class RatingInfluenceService {
+
+    private static final double DAMPING = 0.85;
+    private static final double TOLERANCE = 1e-9; // L1 distance between iterations
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final RegionLeaderboardService regionLeaderboardService;
+    private final ForkJoinPool pool;
+
+    @Value("${influence.max-iterations:50}")
+    private int maxIterations;
+
+    // Dense user indexes; append-only so a snapshot's scores stay valid for its prefix
+    private final Map<String, Integer> indexByUser = new ConcurrentHashMap<>();
+    private int userCount;
+
+    // Sorted, de-duplicated edges keyed by (rater << 32 | target) with accumulated interaction counts
+    private long[] edgeKeys = new long[0];
+    private double[] edgeWeights = new double[0];
+
+    // Interactions recorded since the last compaction
+    private long[] pendingKeys = new long[INITIAL_CAPACITY];
+    private int pendingCount;
+
+    private volatile boolean dirty;
+    private volatile Scores scores = new Scores(new double[0], 0);
+
+    @Autowired
+    public RatingInfluenceService(RegionLeaderboardService regionLeaderboardService,
+            @Value("${influence.parallelism:0}") int parallelism) {
+        this.regionLeaderboardService = regionLeaderboardService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Records a rating as an endorsement edge. Only likes feed influence: a dislike is not an
+     * endorsement, and counting it as edge weight would raise the target's rank.
+     * @param ratingChange positive for a like, negative for a dislike
+     */
+    public synchronized void recordInteraction(String raterId, String targetId, double ratingChange) {
+        if (raterId == null || targetId == null || raterId.equals(targetId) || ratingChange <= 0) {
+            return;
+        }
+        long key = ((long) indexOf(raterId) << 32) | (indexOf(targetId) & 0xffffffffL);
+        if (pendingCount == pendingKeys.length) {
+            // Fold the log into the edge arrays first; it only grows while smaller than the edge set,
+            // which bounds memory by distinct edges and amortizes each merge over as many interactions
+            compactPending();
+            if (pendingKeys.length < edgeKeys.length) {
+                pendingKeys = new long[Math.min(pendingKeys.length * 2, edgeKeys.length)];
+            }
+        }
+        pendingKeys[pendingCount++] = key;
+        dirty = true;
+    }
+
+    @Scheduled(fixedDelayString = "${influence.recompute-interval-ms:300000}")
+    public void scheduledRecompute() {
+        if (dirty) {
+            recompute();
+        }
+    }
+
+    /**
+     * Runs PageRank over the current interaction graph and publishes the new scores.
+     * @return number of iterations until convergence
+     */
+    public int recompute() {
+        long[] keys;
+        double[] weights;
+        int nodeCount;
+        synchronized (this) {
+            compactPending();
+            keys = edgeKeys;
+            weights = edgeWeights;
+            nodeCount = userCount;
+            dirty = false;
+        }
+        if (nodeCount == 0) {
+            return 0;
+        }
+
+        // Pull-based CSR: for every target, its raters and the share of each rater's outgoing weight
+        double[] outWeight = new double[nodeCount];
+        int[] inOffsets = new int[nodeCount + 1];
+        for (int e = 0; e < keys.length; e++) {
+            outWeight[(int) (keys[e] >>> 32)] += weights[e];
+            inOffsets[(int) keys[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] inSources = new int[keys.length];
+        double[] inShares = new double[keys.length];
+        int[] cursor = Arrays.copyOf(inOffsets, nodeCount);
+        for (int e = 0; e < keys.length; e++) {
+            int source = (int) (keys[e] >>> 32);
+            int position = cursor[(int) keys[e]]++;
+            inSources[position] = source;
+            inShares[position] = weights[e] / outWeight[source];
+        }
+
+        double[] rank = new double[nodeCount];
+        double[] next = new double[nodeCount];
+        Arrays.fill(rank, 1.0 / nodeCount);
+
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double delta = iterate(rank, next, outWeight, inOffsets, inSources, inShares);
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            if (delta < TOLERANCE) {
+                break;
+            }
+        }
+
+        scores = new Scores(rank, keys.length);
+        System.out.println("Influence recomputed for " + nodeCount + " users over " + keys.length
+                + " rating edges in " + iterations + " iterations.");
+        return iterations;
+    }
+
+    public InfluenceScore getInfluence(String userId) {
+        return new InfluenceScore(userId, relativeInfluence(userId, scores));
+    }
+
+    public RegionInfluence getRegionInfluence(String regionId, int top) {
+        Scores current = scores;
+        RegionInfluence result = new RegionInfluence();
+        result.setRegionId(regionId);
+
+        PriorityQueue<InfluenceScore> strongest = new PriorityQueue<>(Comparator.comparingDouble(InfluenceScore::getInfluence));
+        double total = 0;
+        int scored = 0;
+        for (String userId : regionLeaderboardService.getMemberIds(regionId)) {
+            double influence = relativeInfluence(userId, current);
+            total += influence;
+            scored++;
+            if (top > 0) {
+                strongest.add(new InfluenceScore(userId, influence));
+                if (strongest.size() > top) {
+                    strongest.poll();
+                }
+            }
+        }
+
+        List<InfluenceScore> topInfluencers = new ArrayList<>(strongest);
+        topInfluencers.sort(Comparator.comparingDouble(InfluenceScore::getInfluence).reversed());
+        result.setUsersScored(scored);
+        result.setTotalInfluence(total);
+        result.setAverageInfluence(scored > 0 ? total / scored : 0);
+        result.setTopInfluencers(topInfluencers);
+        return result;
+    }
+
+    public int getEdgeCount() {
+        return scores.edgeCount();
+    }
+
+    // One power iteration; returns the L1 change
+    private double iterate(double[] rank, double[] next, double[] outWeight,
+            int[] inOffsets, int[] inSources, double[] inShares) {
+        int nodeCount = rank.length;
+        double danglingMass = pool.submit(() -> IntStream.range(0, nodeCount).parallel()
+                .filter(u -> outWeight[u] == 0)
+                .mapToDouble(u -> rank[u])
+                .sum()).join();
+        double base = (1 - DAMPING) / nodeCount + DAMPING * danglingMass / nodeCount;
+
+        return pool.submit(() -> IntStream.range(0, nodeCount).parallel()
+                .mapToDouble(v -> {
+                    double sum = 0;
+                    for (int p = inOffsets[v]; p < inOffsets[v + 1]; p++) {
+                        sum += rank[inSources[p]] * inShares[p];
+                    }
+                    next[v] = base + DAMPING * sum;
+                    return Math.abs(next[v] - rank[v]);
+                })
+                .sum()).join();
+    }
+
+    private double relativeInfluence(String userId, Scores current) {
+        Integer index = indexByUser.get(userId);
+        if (index == null || index >= current.rank().length) {
+            return 0;
+        }
+        return current.rank()[index] * current.rank().length;
+    }
+
+    private int indexOf(String userId) {
+        Integer index = indexByUser.get(userId);
+        if (index != null) {
+            return index;
+        }
+        indexByUser.put(userId, userCount);
+        return userCount++;
+    }
+
+    // Sorts the pending log, collapses duplicates and merges it into the edge arrays
+    private void compactPending() {
+        if (pendingCount == 0) {
+            return;
+        }
+        long[] pending = Arrays.copyOf(pendingKeys, pendingCount);
+        Arrays.parallelSort(pending);
+
+        long[] runKeys = new long[pending.length];
+        double[] runWeights = new double[pending.length];
+        int runs = 0;
+        for (long key : pending) {
+            if (runs > 0 && runKeys[runs - 1] == key) {
+                runWeights[runs - 1]++;
+            } else {
+                runKeys[runs] = key;
+                runWeights[runs] = 1;
+                runs++;
+            }
+        }
+
+        long[] mergedKeys = new long[edgeKeys.length + runs];
+        double[] mergedWeights = new double[edgeKeys.length + runs];
+        int i = 0, j = 0, m = 0;
+        while (i < edgeKeys.length || j < runs) {
+            if (j >= runs || (i < edgeKeys.length && edgeKeys[i] < runKeys[j])) {
+                mergedKeys[m] = edgeKeys[i];
+                mergedWeights[m] = edgeWeights[i++];
+            } else if (i >= edgeKeys.length || runKeys[j] < edgeKeys[i]) {
+                mergedKeys[m] = runKeys[j];
+                mergedWeights[m] = runWeights[j++];
+            } else {
+                mergedKeys[m] = edgeKeys[i];
+                mergedWeights[m] = edgeWeights[i++] + runWeights[j++];
+            }
+            m++;
+        }
+        edgeKeys = Arrays.copyOf(mergedKeys, m);
+        edgeWeights = Arrays.copyOf(mergedWeights, m);
+        pendingCount = 0;
+    }
+
+    private record Scores(double[] rank, int edgeCount) {
+    }
+}
@@ -2,32 +2,32 @@ package itmo.rshd.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.ArrayList;
-import java.util.Set;
-import java.util.Map;
-import java.util.LinkedHashSet;
-import java.util.HashMap;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.ResourceAccessException;
 
+import itmo.rshd.model.ImpactEstimate;
 import itmo.rshd.model.Region;
 import itmo.rshd.model.User;
-import itmo.rshd.model.UserIdsRequest;
 import itmo.rshd.repository.RegionRepository;
 import itmo.rshd.repository.UserRepository;
 
 @Service
 public class RegionAssessmentService {
 
+    // Ratings are clamped to [0, 100]; the last boundary is exclusive, so it sits above 100
+    private static final Integer[] RATING_BUCKET_BOUNDARIES = {0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 101};
+    private static final String OUT_OF_RANGE_BUCKET = "out_of_range";
+
     @Autowired
     private UserRepository userRepository;
 
@@ -40,16 +40,27 @@ public class RegionAssessmentService {
     @Autowired
     private RegionService regionService;
 
-    private final RestTemplate restTemplate;
+    @Autowired
+    private RegionLeaderboardService regionLeaderboardService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserActivitySimulatorClient userActivitySimulatorClient;
 
     @Autowired
     public RegionAssessmentService(UserRepository userRepository, RegionRepository regionRepository,
-                                   WebSocketService webSocketService, RegionService regionService) {
+                                   WebSocketService webSocketService, RegionService regionService,
+                                   RegionLeaderboardService regionLeaderboardService, MongoTemplate mongoTemplate,
+                                   UserActivitySimulatorClient userActivitySimulatorClient) {
         this.userRepository = userRepository;
         this.regionRepository = regionRepository;
         this.webSocketService = webSocketService;
         this.regionService = regionService;
-        this.restTemplate = new RestTemplate();
+        this.regionLeaderboardService = regionLeaderboardService;
+        this.mongoTemplate = mongoTemplate;
+        this.userActivitySimulatorClient = userActivitySimulatorClient;
     }
 
     public boolean shouldDeployOreshnik(String regionId) {
@@ -70,47 +81,92 @@ public class RegionAssessmentService {
     }
 
     public boolean shouldDeployOreshnikByCalculation(String regionId) {
-        // Get users in the region
-        List<User> usersInRegion = userRepository.findByRegionId(regionId);
-        if (usersInRegion.isEmpty()) {
+        // Computed by the database over the whole subtree, without loading any users
+        ImpactEstimate estimate = estimateImpact(regionId);
+        if (estimate == null || estimate.getAffectedPopulation() == 0) {
             return false;
         }
 
-        // Calculate average social rating manually
-        double totalRating = 0;
-        for (User user : usersInRegion) {
-            totalRating += user.getSocialRating();
-        }
-        double averageRating = totalRating / usersInRegion.size();
+        return estimate.getAverageSocialRating() < 30 && estimate.getImportantPersonsCount() == 0;
+    }
 
-        // Check for important persons in the region
-        List<User> importantPersons = userRepository.findImportantPersonsInRegion(regionId);
+    /**
+     * Estimates what an action on the region would affect: population, rating distribution,
+     * status breakdown and important persons of the region and all its sub-regions.
+     * A single $facet aggregation over the users under the region; no User objects are materialised.
+     * @return the estimate, or null if the region does not exist
+     */
+    public ImpactEstimate estimateImpact(String regionId) {
+        List<String> subtreeRegionIds = collectSubtreeRegionIds(regionId);
+        if (subtreeRegionIds.isEmpty()) {
+            return null;
+        }
 
-        return averageRating < 30 && importantPersons.isEmpty();
-    }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("ancestorRegionIds").is(regionId).and("active").is(true)),
+                Aggregation.facet(
+                        Aggregation.group()
+                                .count().as("population")
+                                .avg("socialRating").as("averageRating")
+                                .sum(ConditionalOperators.when(Criteria.where("status").in(
+                                                User.SocialStatus.IMPORTANT.name(), User.SocialStatus.VIP.name()))
+                                        .then(1).otherwise(0)).as("important")).as("totals")
+                        .and(Aggregation.bucket("socialRating")
+                                .withBoundaries((Object[]) RATING_BUCKET_BOUNDARIES)
+                                .withDefaultBucket(OUT_OF_RANGE_BUCKET)
+                                .andOutputCount().as("count")).as("ratings")
+                        .and(Aggregation.group("status").count().as("count")).as("statuses"));
+
+        Document facets = mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+
+        ImpactEstimate estimate = new ImpactEstimate();
+        estimate.setRegionId(regionId);
+        estimate.setRegionsAffected(subtreeRegionIds.size());
+        for (int i = 0; i < RATING_BUCKET_BOUNDARIES.length - 1; i++) {
+            estimate.getRatingDistribution().add(new ImpactEstimate.RatingBucket(
+                    RATING_BUCKET_BOUNDARIES[i].doubleValue(), Math.min(100, RATING_BUCKET_BOUNDARIES[i + 1].doubleValue()), 0));
+        }
+        if (facets == null) {
+            return estimate;
+        }
 
-    // Helper method to recursively update statistics of children regions (bottom-up)
-    private void recursivelyUpdateStatsOfChildren(Region parentRegion) {
-        if (parentRegion == null || parentRegion.getType() == Region.RegionType.DISTRICT) {
-            // Districts are leaves in the region hierarchy for statistics calculation purposes here
-            return;
+        for (Document totals : facets.getList("totals", Document.class)) {
+            estimate.setAffectedPopulation(((Number) totals.get("population")).longValue());
+            Number averageRating = (Number) totals.get("averageRating");
+            estimate.setAverageSocialRating(averageRating != null ? averageRating.doubleValue() : 0);
+            estimate.setImportantPersonsCount(((Number) totals.get("important")).longValue());
         }
-        List<Region> children = regionRepository.findByParentRegionId(parentRegion.getId());
-        if (children != null) {
-            for (Region child : children) {
-                recursivelyUpdateStatsOfChildren(child); // Go to deepest children first
-                System.out.println("Updating stats for child region: " + child.getName() + " (ID: " + child.getId() + ") before parent " + parentRegion.getName());
-                Region updatedChild = regionService.updateRegionStatistics(child.getId());
-                if (updatedChild != null) {
-                    webSocketService.notifyRegionStatusUpdate(updatedChild);
-                } else {
-                     System.err.println("Failed to update stats for child region: " + child.getId() + " during recursive update of children for " + parentRegion.getId());
+        for (Document bucket : facets.getList("ratings", Document.class)) {
+            if (!(bucket.get("_id") instanceof Number)) {
+                // Ratings outside [0, 100] written before clamping, or not numeric at all
+                estimate.setOutOfRangeCount(((Number) bucket.get("count")).longValue());
+                continue;
+            }
+            double from = ((Number) bucket.get("_id")).doubleValue();
+            for (ImpactEstimate.RatingBucket ratingBucket : estimate.getRatingDistribution()) {
+                if (ratingBucket.getFrom() == from) {
+                    ratingBucket.setCount(((Number) bucket.get("count")).longValue());
                 }
             }
         }
+        for (Document status : facets.getList("statuses", Document.class)) {
+            if (status.get("_id") != null) {
+                estimate.getStatusCounts().put(User.SocialStatus.valueOf(status.get("_id").toString()),
+                        ((Number) status.get("count")).longValue());
+            }
+        }
+        return estimate;
     }
 
     public boolean deployOreshnik(String regionId) {
+        return deployOreshnik(regionId, JobProgress.NONE);
+    }
+
+    /**
+     * Runs the deployment, reporting deactivated users and updated regions to the given progress.
+     * Cancellation is honoured only before any user is deactivated.
+     */
+    public boolean deployOreshnik(String regionId, JobProgress progress) {
         Optional<Region> regionOpt = regionRepository.findById(regionId);
         if (!regionOpt.isPresent()) {
             System.err.println("ORESHNIK DEPLOYMENT FAILED: Region not found: " + regionId);
@@ -121,26 +177,27 @@ public class RegionAssessmentService {
         if (shouldDeployOreshnik(regionId)) {
             System.out.println("ORESHNIK deployment authorized for region: " + region.getName() + " (ID: " + regionId + ")");
 
-            eliminateUsersInRegion(regionId); // This now updates users in DB AND embedded lists in ALL affected regions.
-            
-            System.out.println("Starting recursive stats update for children of target region: " + region.getName());
-            recursivelyUpdateStatsOfChildren(region);
-            System.out.println("Finished recursive stats update for children of target region: " + region.getName());
+            // Deactivates users and resets the statistics of the whole subtree in bulk
+            List<String> subtreeRegionIds = eliminateUsersInRegion(regionId, progress);
 
-            // Now update the target region itself, it will use the freshly updated stats of its children
-            Region updatedRegionAfterEliminationAndChildUpdates = regionService.updateRegionStatistics(regionId);
+            Region updatedRegionAfterEliminationAndChildUpdates = null;
+            for (Region subtreeRegion : regionRepository.findAllById(subtreeRegionIds)) {
+                webSocketService.notifyRegionStatusUpdate(subtreeRegion);
+                if (subtreeRegion.getId().equals(regionId)) {
+                    updatedRegionAfterEliminationAndChildUpdates = subtreeRegion;
+                }
+            }
 
             if (updatedRegionAfterEliminationAndChildUpdates != null) {
                 System.out.println("Region " + updatedRegionAfterEliminationAndChildUpdates.getName() +
                                    " statistics updated after Oreshnik and child updates. Population: " + updatedRegionAfterEliminationAndChildUpdates.getPopulationCount() +
                                    ", AvgRating: " + updatedRegionAfterEliminationAndChildUpdates.getAverageSocialRating());
-                webSocketService.notifyRegionStatusUpdate(updatedRegionAfterEliminationAndChildUpdates);
 
                 String parentId = updatedRegionAfterEliminationAndChildUpdates.getParentRegionId();
                 if (parentId != null && !parentId.isEmpty() && !parentId.equals("none")) {
                     System.out.println("Triggering statistics update for parent region hierarchy: " + parentId);
                     // This existing method handles recursive updates *upwards* from the target region's parent
-                    updateParentStatsRecursively(parentId); 
+                    updateParentStatsRecursively(parentId, progress);
                 }
                 return true;
             } else {
@@ -154,7 +211,7 @@ public class RegionAssessmentService {
     }
     
     // This method updates parent stats recursively upwards.
-    private void updateParentStatsRecursively(String regionIdToUpdate) {
+    private void updateParentStatsRecursively(String regionIdToUpdate, JobProgress progress) {
         if (regionIdToUpdate == null || regionIdToUpdate.isEmpty() || regionIdToUpdate.equals("none")) {
             return;
         }
@@ -162,151 +219,91 @@ public class RegionAssessmentService {
         Region updatedRegion = regionService.updateRegionStatistics(regionIdToUpdate);
         if (updatedRegion != null) {
             webSocketService.notifyRegionStatusUpdate(updatedRegion); 
+            progress.regionsUpdated(1);
             String parentId = updatedRegion.getParentRegionId();
-            updateParentStatsRecursively(parentId); 
+            updateParentStatsRecursively(parentId, progress);
         } else {
             System.err.println("Failed to update stats for parent region: " + regionIdToUpdate + " during recursive ancestor update.");
         }
     }
 
-    // New helper method to recursively collect users and involved regions
-    private void collectUsersAndRegionsRecursively(Region currentRegion, Set<User> usersToCollect, Map<String, Region> regionsInvolved) {
-        if (currentRegion == null) {
-            return;
-        }
-        // Add current region to the map of involved regions
-        regionsInvolved.put(currentRegion.getId(), currentRegion);
-
-        // Add users directly associated with the currentRegion
-        if (currentRegion.getUsers() != null) {
-            usersToCollect.addAll(currentRegion.getUsers());
-        }
-
-        // If the current region is not a district, recursively collect from sub-regions.
-        if (currentRegion.getType() != Region.RegionType.DISTRICT) {
-            List<Region> subRegions = regionRepository.findByParentRegionId(currentRegion.getId());
-            if (subRegions != null) {
-                for (Region subRegion : subRegions) {
-                    // Pass the original maps/sets to accumulate
-                    collectUsersAndRegionsRecursively(subRegion, usersToCollect, regionsInvolved);
-                }
-            }
-        }
+    // Ids of the region and all of its descendants, one indexed query on the materialised ancestor path
+    private List<String> collectSubtreeRegionIds(String rootRegionId) {
+        Query subtreeQuery = new Query(new Criteria().orOperator(
+                Criteria.where("id").is(rootRegionId),
+                Criteria.where("ancestorIds").is(rootRegionId)));
+        subtreeQuery.fields().include("id");
+        return mongoTemplate.find(subtreeQuery, Region.class).stream()
+                .map(Region::getId)
+                .collect(Collectors.toList());
     }
 
     /**
      * "Eliminates" users in a target region and its sub-regions.
-     * 1. Collects all users from the target region and its descendants.
-     * 2. Collects all Region objects involved.
-     * 3. Marks collected users as inactive (social rating 0) and saves them to UserRepository.
-     * 4. For each involved Region object, updates its embedded 'users' list with the modified User instances and saves the Region.
+     * 1. Resolves the ids of the target region and all of its descendants.
+     * 2. Marks every active user under the target region as inactive (social rating 0)
+     *    with a single updateMany on the users collection.
+     * 3. Updates the embedded user copies and resets the statistics of all those regions
+     *    with a single updateMany on the regions collection, since nobody active is left in them.
+     * @return ids of the target region and its descendants
      */
-    private void eliminateUsersInRegion(String targetRegionId) {
-        Region targetRegion = regionRepository.findById(targetRegionId).orElse(null);
-        if (targetRegion == null) {
+    private List<String> eliminateUsersInRegion(String targetRegionId, JobProgress progress) {
+        if (!regionRepository.existsById(targetRegionId)) {
             System.out.println("Warning: Target region not found for elimination: " + targetRegionId);
-            return;
+            return List.of();
         }
 
-        Set<User> uniqueUsersToEliminate = new LinkedHashSet<>();
-        Map<String, Region> involvedRegionsMap = new HashMap<>();
-        
-        // Populate usersToEliminate and involvedRegionsMap
-        collectUsersAndRegionsRecursively(targetRegion, uniqueUsersToEliminate, involvedRegionsMap);
-        
-        List<User> usersToEliminateList = new ArrayList<>(uniqueUsersToEliminate);
-
-        System.out.println("Found " + usersToEliminateList.size() + " unique users across " + involvedRegionsMap.size() + " regions (target and sub-regions) for elimination based on target: " + targetRegion.getName());
-
-        // --- Integration with user-activity-simulator ---
-        if (!usersToEliminateList.isEmpty()) {
-            List<String> userIdsToSimulate = usersToEliminateList.stream()
-                                                                 .map(User::getId)
-                                                                 .collect(Collectors.toList());
-            UserIdsRequest requestBody = new UserIdsRequest(userIdsToSimulate);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<UserIdsRequest> entity = new HttpEntity<>(requestBody, headers);
-
-            String simulatorUrlStart = "http://localhost:8080/start";
-            String simulatorUrlStop = "http://localhost:8080/stop";
-
-            try {
-                System.out.println("Starting user activity simulation for " + userIdsToSimulate.size() + " users.");
-                ResponseEntity<String> responseStart = restTemplate.postForEntity(simulatorUrlStart, entity, String.class);
-                System.out.println("Simulator /start response: " + responseStart.getStatusCode() + " Body: " + responseStart.getBody());
-
-                Thread.sleep(1000); // Wait for 1 second
-
-                System.out.println("Stopping user activity simulation.");
-                ResponseEntity<String> responseStop = restTemplate.postForEntity(simulatorUrlStop, null, String.class);
-                System.out.println("Simulator /stop response: " + responseStop.getStatusCode() + " Body: " + responseStop.getBody());
-
-            } catch (HttpClientErrorException e) {
-                System.err.println("Error calling user-activity-simulator: " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
-            } catch (ResourceAccessException e) {
-                System.err.println("Error connecting to user-activity-simulator: " + e.getMessage());
-            } catch (InterruptedException e) {
-                System.err.println("Thread interrupted while waiting for simulator: " + e.getMessage());
-                Thread.currentThread().interrupt(); // Preserve interrupt status
-            } catch (Exception e) {
-                System.err.println("An unexpected error occurred while interacting with user-activity-simulator: " + e.getMessage());
-            }
+        checkNotCancelled(progress);
+        List<String> subtreeRegionIds = collectSubtreeRegionIds(targetRegionId);
+
+        Query activeUsersQuery = new Query(Criteria.where("ancestorRegionIds").is(targetRegionId).and("active").is(true));
+
+        Query idsQuery = Query.of(activeUsersQuery);
+        idsQuery.fields().include("id");
+        List<String> userIdsToEliminate = mongoTemplate.find(idsQuery, User.class).stream()
+                                                       .map(User::getId)
+                                                       .collect(Collectors.toList());
+
+        System.out.println("Found " + userIdsToEliminate.size() + " active users across " + subtreeRegionIds.size() + " regions (target and sub-regions) for elimination based on target: " + targetRegionId);
+
+        // Past this point users are deactivated and statistics reset; the job can no longer be cancelled
+        if (!progress.enterPointOfNoReturn()) {
+            throw new CancellationException("Oreshnik deployment cancelled before any user was deactivated");
         }
-        // --- End of integration ---
-
-        List<User> savedBatchOfEliminatedUsers = new ArrayList<>();
-        if (!usersToEliminateList.isEmpty()) {
-            for (User user : usersToEliminateList) {
-                user.setSocialRating(0);
-                user.setActive(false);
-                // Collect for batch save or save individually - assuming save returns the managed entity
-                savedBatchOfEliminatedUsers.add(userRepository.save(user)); 
+
+        // The simulator runs alongside the user updates; its stop is scheduled by the client
+        userActivitySimulatorClient.runSimulation(userIdsToEliminate);
+
+        if (!userIdsToEliminate.isEmpty()) {
+            long modified = mongoTemplate.updateMulti(activeUsersQuery,
+                    new Update().set("socialRating", 0).set("active", false), User.class).getModifiedCount();
+            for (String userId : userIdsToEliminate) {
+                regionLeaderboardService.removeUser(userId);
             }
-            System.out.println("Completed UserRepository update for " + savedBatchOfEliminatedUsers.size() + " users.");
+            progress.usersProcessed(modified);
+            System.out.println("Completed user update for " + modified + " users.");
         } else {
-            System.out.println("No users found to eliminate for target region: " + targetRegion.getName());
-            // Still proceed to update regions in case their lists need cleaning, though unlikely if no users.
+            System.out.println("No users found to eliminate for target region: " + targetRegionId);
         }
-        
-        // Create a map of the final state of eliminated users by their ID for easy lookup
-        Map<String, User> finalStateUserMap = savedBatchOfEliminatedUsers.stream()
-                                                .filter(u -> u.getId() != null)
-                                                .collect(Collectors.toMap(User::getId, u -> u));
-
-        // Update embedded user lists in ALL involved regions
-        System.out.println("Updating embedded user lists for all " + involvedRegionsMap.size() + " involved regions...");
-        for (Region affectedRegion : involvedRegionsMap.values()) {
-            List<User> currentEmbeddedUsers = affectedRegion.getUsers(); // Get original list
-            List<User> newEmbeddedUserList = new ArrayList<>();
-
-            if (currentEmbeddedUsers != null) {
-                for (User embeddedUser : currentEmbeddedUsers) {
-                    if (embeddedUser.getId() != null && finalStateUserMap.containsKey(embeddedUser.getId())) {
-                        // If this user was in the elimination batch, add its updated state
-                        newEmbeddedUserList.add(finalStateUserMap.get(embeddedUser.getId()));
-                    } else {
-                        newEmbeddedUserList.add(embeddedUser);
-                    }
-                }
-            }
-            List<User> correctlyUpdatedEmbeddedList = new ArrayList<>();
-            if (currentEmbeddedUsers != null) {
-                for (User originalEmbeddedUser : currentEmbeddedUsers) {
-                    User updatedVersion = finalStateUserMap.get(originalEmbeddedUser.getId());
-                    if (updatedVersion != null) {
-                        correctlyUpdatedEmbeddedList.add(updatedVersion); // Add the updated user from saved batch
-                    } else {
-                        correctlyUpdatedEmbeddedList.add(originalEmbeddedUser);
-                    }
-                }
-            }
 
+        long regionsModified = mongoTemplate.updateMulti(
+                new Query(Criteria.where("id").in(subtreeRegionIds)),
+                new Update()
+                        .set("users.$[].socialRating", 0)
+                        .set("users.$[].active", false)
+                        .set("populationCount", 0)
+                        .set("averageSocialRating", 0)
+                        .set("importantPersonsCount", 0)
+                        .set("underThreat", false),
+                Region.class).getModifiedCount();
+        System.out.println("Updated embedded user lists and statistics for " + regionsModified + " of " + subtreeRegionIds.size() + " involved regions.");
+        progress.regionsUpdated(subtreeRegionIds.size());
+        return subtreeRegionIds;
+    }
 
-            affectedRegion.setUsers(correctlyUpdatedEmbeddedList); // Use the more robustly built list
-            regionRepository.save(affectedRegion);
-            System.out.println("Saved region " + affectedRegion.getName() + " (ID: " + affectedRegion.getId() + ") with updated embedded user list (" + correctlyUpdatedEmbeddedList.size() + " users).");
+    private void checkNotCancelled(JobProgress progress) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Oreshnik deployment cancelled before any user was deactivated");
         }
-        System.out.println("Finished updating embedded user lists for all involved regions.");
     }
 }
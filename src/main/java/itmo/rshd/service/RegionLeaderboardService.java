@@ -0,0 +1,308 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.LeaderboardEntry;
+import itmo.rshd.model.Region;
+import itmo.rshd.model.User;
+import itmo.rshd.model.websocket.LeaderboardRankUpdate;
+import itmo.rshd.repository.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory top-K index of active users per region.
+ * Every user is kept in the board of the region they are embedded in and in the boards
+ * of all its ancestors, so a district rolls up into its city, federal region and country.
+ */
+@Service
+public class RegionLeaderboardService {
+
+    // Rank changes are only broadcast while a user is inside the top of a board
+    private static final int RANK_NOTIFICATION_WINDOW = 10;
+    private static final int MAX_HIERARCHY_DEPTH = 8;
+
+    // Highest rating first, ties broken by user id so entries are unique
+    private static final Comparator<RankedUser> RANKING_ORDER = Comparator
+            .comparingDouble(RankedUser::socialRating).reversed()
+            .thenComparing(RankedUser::userId);
+
+    private final RegionRepository regionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final WebSocketService webSocketService;
+
+    // Replaced wholesale by rebuild(); user updates hold the read lock so none lands mid-rebuild
+    private volatile Map<String, ConcurrentSkipListSet<RankedUser>> boards = new ConcurrentHashMap<>();
+    private volatile Map<String, RankedUser> entriesByUser = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final Map<String, String> parentByRegion = new ConcurrentHashMap<>();
+    private final Set<String> knownRegions = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public RegionLeaderboardService(RegionRepository regionRepository, MongoTemplate mongoTemplate,
+            WebSocketService webSocketService) {
+        this.regionRepository = regionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.webSocketService = webSocketService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        System.out.println("Building region leaderboards...");
+        rebuildLock.writeLock().lock();
+        try {
+            reloadHierarchy();
+            // Readers keep the previous boards until the new ones are complete
+            Map<String, ConcurrentSkipListSet<RankedUser>> nextBoards = new ConcurrentHashMap<>();
+            Map<String, RankedUser> nextEntries = new ConcurrentHashMap<>();
+
+            Query query = new Query(Criteria.where("active").is(true));
+            query.fields().include("id", "fullName", "socialRating", "status", "districtId", "regionId", "countryId", "active");
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                users.forEach(user -> {
+                    RankedUser entry = toEntry(user);
+                    nextEntries.put(entry.userId(), entry);
+                    for (String regionId : entry.regionIds()) {
+                        board(nextBoards, regionId).add(entry);
+                    }
+                });
+            }
+            boards = nextBoards;
+            entriesByUser = nextEntries;
+            System.out.println("Region leaderboards built for " + nextEntries.size() + " users across " + nextBoards.size() + " regions.");
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-ranks a user after any change of rating, status, location or activity.
+     * Inactive users are dropped from all boards.
+     */
+    public void updateUser(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        if (!user.isActive()) {
+            removeUser(user.getId());
+            return;
+        }
+
+        Map<String, Integer> ranksBefore = new HashMap<>();
+        Map<String, Integer> ranksAfter = new HashMap<>();
+        RankedUser next;
+
+        rebuildLock.readLock().lock();
+        try {
+            next = toEntry(user);
+            entriesByUser.compute(user.getId(), (id, previous) -> {
+                if (previous != null) {
+                    for (String regionId : previous.regionIds()) {
+                        ranksBefore.put(regionId, rankWithinWindow(regionId, previous));
+                        board(regionId).remove(previous);
+                    }
+                }
+                for (String regionId : next.regionIds()) {
+                    board(regionId).add(next);
+                    ranksAfter.put(regionId, rankWithinWindow(regionId, next));
+                }
+                return next;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+
+        publishRankChanges(next.userId(), next.socialRating(), ranksBefore, ranksAfter);
+    }
+
+    public void removeUser(String userId) {
+        Map<String, Integer> ranksBefore = new HashMap<>();
+        RankedUser[] removed = new RankedUser[1];
+
+        rebuildLock.readLock().lock();
+        try {
+            entriesByUser.computeIfPresent(userId, (id, previous) -> {
+                for (String regionId : previous.regionIds()) {
+                    ranksBefore.put(regionId, rankWithinWindow(regionId, previous));
+                    board(regionId).remove(previous);
+                }
+                removed[0] = previous;
+                return null;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+
+        if (removed[0] != null) {
+            publishRankChanges(userId, removed[0].socialRating(), ranksBefore, Collections.emptyMap());
+        }
+    }
+
+    // Answered from memory; the hierarchy only changes through RegionService, which keeps it current
+    public boolean hasRegion(String regionId) {
+        return knownRegions.contains(regionId);
+    }
+
+    /**
+     * Records a created or updated region. Moving a region to another parent changes the boards
+     * its users roll up into, so the leaderboards are rebuilt in that case.
+     */
+    public void registerRegion(Region region) {
+        if (region == null || region.getId() == null) {
+            return;
+        }
+        String parentRegionId = isAssigned(region.getParentRegionId()) ? region.getParentRegionId() : null;
+        boolean known = knownRegions.contains(region.getId());
+        String previousParentId = parentByRegion.get(region.getId());
+        knownRegions.add(region.getId());
+        if (parentRegionId != null) {
+            parentByRegion.put(region.getId(), parentRegionId);
+        } else {
+            parentByRegion.remove(region.getId());
+        }
+        if (known && !Objects.equals(previousParentId, parentRegionId)) {
+            rebuild();
+        }
+    }
+
+    public void forgetRegion(String regionId) {
+        knownRegions.remove(regionId);
+        parentByRegion.remove(regionId);
+    }
+
+    /**
+     * @param lowest when true the board is read from the bottom (lowest rated first)
+     */
+    public List<LeaderboardEntry> getLeaderboard(String regionId, int top, boolean lowest) {
+        ConcurrentSkipListSet<RankedUser> board = boards.get(regionId);
+        if (board == null || top <= 0) {
+            return Collections.emptyList();
+        }
+
+        Iterator<RankedUser> iterator = lowest ? board.descendingIterator() : board.iterator();
+        List<LeaderboardEntry> result = new ArrayList<>(Math.min(top, 1024));
+        int rank = 0;
+        while (iterator.hasNext() && rank < top) {
+            RankedUser entry = iterator.next();
+            rank++;
+            result.add(new LeaderboardEntry(rank, entry.userId(), entry.fullName(), entry.socialRating(), entry.status()));
+        }
+        return result;
+    }
+
+    // Ids of all active users in the region and its sub-regions
+    public List<String> getMemberIds(String regionId) {
+        ConcurrentSkipListSet<RankedUser> board = boards.get(regionId);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        List<String> memberIds = new ArrayList<>();
+        for (RankedUser entry : board) {
+            memberIds.add(entry.userId());
+        }
+        return memberIds;
+    }
+
+    private void publishRankChanges(String userId, double socialRating,
+            Map<String, Integer> ranksBefore, Map<String, Integer> ranksAfter) {
+        Set<String> regionIds = new HashSet<>(ranksBefore.keySet());
+        regionIds.addAll(ranksAfter.keySet());
+        for (String regionId : regionIds) {
+            int before = ranksBefore.getOrDefault(regionId, 0);
+            int after = ranksAfter.getOrDefault(regionId, 0);
+            if (before != after) {
+                webSocketService.notifyLeaderboardRankChange(
+                        new LeaderboardRankUpdate(regionId, userId, before, after, socialRating));
+            }
+        }
+    }
+
+    // 1-based rank of the entry if it is within the notification window, 0 otherwise
+    private int rankWithinWindow(String regionId, RankedUser entry) {
+        int rank = 0;
+        for (RankedUser candidate : board(regionId)) {
+            rank++;
+            if (rank > RANK_NOTIFICATION_WINDOW) {
+                return 0;
+            }
+            if (candidate.userId().equals(entry.userId())) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    private ConcurrentSkipListSet<RankedUser> board(String regionId) {
+        return board(boards, regionId);
+    }
+
+    private static ConcurrentSkipListSet<RankedUser> board(Map<String, ConcurrentSkipListSet<RankedUser>> boards,
+            String regionId) {
+        return boards.computeIfAbsent(regionId, id -> new ConcurrentSkipListSet<>(RANKING_ORDER));
+    }
+
+    private RankedUser toEntry(User user) {
+        return new RankedUser(user.getId(), user.getFullName(), user.getSocialRating(), user.getStatus(),
+                resolveRegionChain(user));
+    }
+
+    // The user's embedding region (district, else city/federal region, else country) followed by its ancestors
+    private List<String> resolveRegionChain(User user) {
+        String embeddingRegionId;
+        if (isAssigned(user.getDistrictId())) {
+            embeddingRegionId = user.getDistrictId();
+        } else if (isAssigned(user.getRegionId())) {
+            embeddingRegionId = user.getRegionId();
+        } else if (isAssigned(user.getCountryId())) {
+            embeddingRegionId = user.getCountryId();
+        } else {
+            return Collections.emptyList();
+        }
+
+        List<String> chain = new ArrayList<>(4);
+        String current = embeddingRegionId;
+        while (current != null && chain.size() < MAX_HIERARCHY_DEPTH && !chain.contains(current)) {
+            chain.add(current);
+            current = parentByRegion.get(current);
+        }
+        return chain;
+    }
+
+    private synchronized void reloadHierarchy() {
+        for (Region region : regionRepository.findAllHierarchyLinks()) {
+            knownRegions.add(region.getId());
+            if (isAssigned(region.getParentRegionId())) {
+                parentByRegion.put(region.getId(), region.getParentRegionId());
+            } else {
+                parentByRegion.remove(region.getId());
+            }
+        }
+    }
+
+    private boolean isAssigned(String regionId) {
+        return regionId != null && !regionId.isEmpty() && !regionId.equals("none");
+    }
+
+    private record RankedUser(String userId, String fullName, double socialRating, User.SocialStatus status,
+            List<String> regionIds) {
+    }
+}
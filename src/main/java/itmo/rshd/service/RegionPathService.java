@@ -0,0 +1,206 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.Region;
+import itmo.rshd.model.User;
+import itmo.rshd.repository.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the materialised ancestor paths: Region.ancestorIds (all ancestors of a region)
+ * and User.ancestorRegionIds (the user's embedding region followed by its ancestors).
+ * With these, "everything under region X" is a single indexed equality match on X.
+ */
+@Service
+public class RegionPathService {
+
+    private static final int MAX_HIERARCHY_DEPTH = 8;
+
+    private final RegionRepository regionRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // Replaced wholesale on reload so readers never see a partially filled map
+    private volatile Map<String, String> parentByRegion = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    @Autowired
+    public RegionPathService(RegionRepository regionRepository, MongoTemplate mongoTemplate) {
+        this.regionRepository = regionRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @return ancestors of the region, country first
+     */
+    public List<String> ancestorsOf(String regionId) {
+        ensureLoaded();
+        // Regions are registered as they are saved, so an unknown id has no known ancestors
+        Map<String, String> parents = parentByRegion;
+        List<String> ancestors = new ArrayList<>(4);
+        String current = parents.get(regionId);
+        while (isAssigned(current) && ancestors.size() < MAX_HIERARCHY_DEPTH && !ancestors.contains(current)) {
+            ancestors.add(current);
+            current = parents.get(current);
+        }
+        Collections.reverse(ancestors);
+        return ancestors;
+    }
+
+    /**
+     * @return the user's embedding region (district, else city/federal region, else country) and its ancestors, country first
+     */
+    public List<String> regionPathOf(User user) {
+        String embeddingRegionId = embeddingRegionId(user);
+        if (embeddingRegionId == null) {
+            return new ArrayList<>();
+        }
+        List<String> path = ancestorsOf(embeddingRegionId);
+        path.add(embeddingRegionId);
+        return path;
+    }
+
+    public void applyPath(Region region) {
+        List<String> ancestors = new ArrayList<>();
+        if (isAssigned(region.getParentRegionId())) {
+            ancestors.addAll(ancestorsOf(region.getParentRegionId()));
+            ancestors.add(region.getParentRegionId());
+        }
+        region.setAncestorIds(ancestors);
+    }
+
+    public void applyPath(User user) {
+        user.setAncestorRegionIds(regionPathOf(user));
+    }
+
+    /**
+     * True when the region is already known with a different parent, i.e. the save moves a subtree.
+     */
+    public boolean isMoved(Region region) {
+        ensureLoaded();
+        String knownParent = region.getId() != null ? parentByRegion.get(region.getId()) : null;
+        if (knownParent == null) {
+            return false;
+        }
+        String newParent = isAssigned(region.getParentRegionId()) ? region.getParentRegionId() : "";
+        return !knownParent.equals(newParent);
+    }
+
+    // Records the region's current parent once it has been saved
+    public void registerRegion(Region region) {
+        registerLink(region.getId(), region.getParentRegionId());
+    }
+
+    public synchronized void forgetRegion(String regionId) {
+        parentByRegion.remove(regionId);
+    }
+
+    /**
+     * Recomputes the paths of every region and user below the given region, after it was moved.
+     * Issues one bulk write for the regions and one updateMany per region for the users.
+     */
+    public void refreshSubtree(String rootRegionId) {
+        Query descendantsQuery = new Query(Criteria.where("ancestorIds").is(rootRegionId));
+        descendantsQuery.fields().include("id", "parentRegionId");
+        List<String> regionIds = new ArrayList<>();
+        regionIds.add(rootRegionId);
+        for (Region descendant : mongoTemplate.find(descendantsQuery, Region.class)) {
+            registerLink(descendant.getId(), descendant.getParentRegionId());
+            regionIds.add(descendant.getId());
+        }
+        writePaths(regionIds, false);
+    }
+
+    /**
+     * Writes the paths of the given regions and of the users embedded in them.
+     * @param onlyMissing only touch documents whose path is missing or empty (migration mode)
+     * @return number of regions whose path was written
+     */
+    public int writePaths(List<String> regionIds, boolean onlyMissing) {
+        ensureLoaded();
+        BulkOperations regionOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class);
+        BulkOperations userOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+
+        for (String regionId : regionIds) {
+            List<String> ancestors = ancestorsOf(regionId);
+            Criteria regionCriteria = Criteria.where("id").is(regionId);
+            if (onlyMissing) {
+                regionCriteria = new Criteria().andOperator(regionCriteria, missingOrEmpty("ancestorIds"));
+            }
+            regionOps.updateOne(new Query(regionCriteria), new Update().set("ancestorIds", ancestors));
+
+            List<String> userPath = new ArrayList<>(ancestors);
+            userPath.add(regionId);
+            Criteria userCriteria = embeddedIn(regionId);
+            if (onlyMissing) {
+                userCriteria = new Criteria().andOperator(userCriteria, missingOrEmpty("ancestorRegionIds"));
+            }
+            userOps.updateMulti(new Query(userCriteria), new Update().set("ancestorRegionIds", userPath));
+        }
+
+        if (!regionIds.isEmpty()) {
+            regionOps.execute();
+            userOps.execute();
+        }
+        return regionIds.size();
+    }
+
+    public synchronized void reload() {
+        Map<String, String> parents = new ConcurrentHashMap<>();
+        for (Region link : regionRepository.findAllHierarchyLinks()) {
+            parents.put(link.getId(), isAssigned(link.getParentRegionId()) ? link.getParentRegionId() : "");
+        }
+        parentByRegion = parents;
+        loaded = true;
+    }
+
+    // Users whose most specific region is the given one
+    private Criteria embeddedIn(String regionId) {
+        return new Criteria().orOperator(
+                Criteria.where("districtId").is(regionId),
+                Criteria.where("districtId").in("none", null).and("regionId").is(regionId),
+                Criteria.where("districtId").in("none", null).and("regionId").in("none", null)
+                        .and("countryId").is(regionId));
+    }
+
+    // Documents written before the paths existed have no field; bulk-inserted ones carry an empty list
+    private Criteria missingOrEmpty(String field) {
+        return new Criteria().orOperator(Criteria.where(field).exists(false), Criteria.where(field).size(0));
+    }
+
+    private String embeddingRegionId(User user) {
+        if (isAssigned(user.getDistrictId())) {
+            return user.getDistrictId();
+        } else if (isAssigned(user.getRegionId())) {
+            return user.getRegionId();
+        } else if (isAssigned(user.getCountryId())) {
+            return user.getCountryId();
+        }
+        return null;
+    }
+
+    // Serialized with reload() so a link is never written to a map that is about to be replaced
+    private synchronized void registerLink(String regionId, String parentRegionId) {
+        parentByRegion.put(regionId, isAssigned(parentRegionId) ? parentRegionId : "");
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private boolean isAssigned(String regionId) {
+        return regionId != null && !regionId.isEmpty() && !regionId.equals("none");
+    }
+}
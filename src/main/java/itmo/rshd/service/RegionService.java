@@ -10,8 +10,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RegionService {
@@ -19,17 +26,28 @@ public class RegionService {
     private final RegionRepository regionRepository;
     private final UserRepository userRepository;
     private final RegionAssessmentService regionAssessmentService;
+    private final RegionPathService regionPathService;
+    private final MissileReachabilityService missileReachabilityService;
+    private final RegionLeaderboardService regionLeaderboardService;
 
     @Autowired
     public RegionService(RegionRepository regionRepository, UserRepository userRepository,
-            @Lazy RegionAssessmentService regionAssessmentService) {
+            @Lazy RegionAssessmentService regionAssessmentService, RegionPathService regionPathService,
+            MissileReachabilityService missileReachabilityService, RegionLeaderboardService regionLeaderboardService) {
         this.regionRepository = regionRepository;
         this.userRepository = userRepository;
         this.regionAssessmentService = regionAssessmentService;
+        this.regionPathService = regionPathService;
+        this.missileReachabilityService = missileReachabilityService;
+        this.regionLeaderboardService = regionLeaderboardService;
     }
 
     public Region createRegion(Region region) {
-        return regionRepository.save(region);
+        regionPathService.applyPath(region);
+        Region savedRegion = regionRepository.save(region);
+        regionPathService.registerRegion(savedRegion);
+        regionLeaderboardService.registerRegion(savedRegion);
+        return savedRegion;
     }
 
     public List<Region> getAllRegions() {
@@ -41,11 +59,24 @@ public class RegionService {
     }
 
     public Region updateRegion(Region region) {
-        return regionRepository.save(region);
+        boolean moved = regionPathService.isMoved(region);
+        regionPathService.applyPath(region);
+        Region savedRegion = regionRepository.save(region);
+        regionPathService.registerRegion(savedRegion);
+        regionLeaderboardService.registerRegion(savedRegion);
+        missileReachabilityService.onRegionSaved(savedRegion);
+        if (moved) {
+            // The region got a new parent, so every path below it is stale
+            regionPathService.refreshSubtree(savedRegion.getId());
+        }
+        return savedRegion;
     }
 
     public void deleteRegion(String id) {
         regionRepository.deleteById(id);
+        regionPathService.forgetRegion(id);
+        regionLeaderboardService.forgetRegion(id);
+        missileReachabilityService.evictRegion(id);
     }
 
     public List<Region> findRegionsByType(RegionType type) {
@@ -136,6 +167,47 @@ public class RegionService {
         return updatedRegions;
     }
 
+    /**
+     * Recomputes statistics for the given regions and all of their ancestors exactly once,
+     * deepest regions first so every parent sees the fresh totals of its children.
+     */
+    public List<Region> updateRegionStatisticsBottomUp(Collection<String> regionIds) {
+        Map<String, String> parentByRegion = new HashMap<>();
+        for (Region link : regionRepository.findAllHierarchyLinks()) {
+            parentByRegion.put(link.getId(), link.getParentRegionId());
+        }
+
+        Set<String> regionsToUpdate = new LinkedHashSet<>();
+        for (String regionId : regionIds) {
+            String current = regionId;
+            while (current != null && parentByRegion.containsKey(current) && regionsToUpdate.add(current)) {
+                current = parentByRegion.get(current);
+            }
+        }
+
+        List<String> ordered = new ArrayList<>(regionsToUpdate);
+        ordered.sort(Comparator.comparingInt((String id) -> depthOf(id, parentByRegion)).reversed());
+
+        List<Region> updatedRegions = new ArrayList<>();
+        for (String regionId : ordered) {
+            Region updatedRegion = updateRegionStatistics(regionId);
+            if (updatedRegion != null) {
+                updatedRegions.add(updatedRegion);
+            }
+        }
+        return updatedRegions;
+    }
+
+    private int depthOf(String regionId, Map<String, String> parentByRegion) {
+        int depth = 0;
+        String parent = parentByRegion.get(regionId);
+        while (parent != null && parentByRegion.containsKey(parent) && depth < parentByRegion.size()) {
+            depth++;
+            parent = parentByRegion.get(parent);
+        }
+        return depth;
+    }
+
     public List<Region> findRegionsUnderThreat(RegionType type) {
         return regionRepository.findRegionsUnderThreat(type);
     }
@@ -0,0 +1,122 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.SupplyFlowPlan;
+import itmo.rshd.util.MaxFlowNetwork;
+import itmo.rshd.util.SupplyNetworkSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Max-flow capacity planning over the supply network snapshot. Regional hubs supply their current
+ * stock, distribution points absorb up to their free capacity and every active route carries at
+ * most its capacity. After routes are toggled the previous flow is reused: newly active routes are
+ * filled by augmenting paths, and only deactivating a route that carried flow forces a full run.
+ */
+@Service
+public class SupplyCapacityPlanner {
+
+    private static final String HUB_TYPE = "REGIONAL_HUB";
+    private static final String DISTRIBUTION_POINT_TYPE = "DISTRIBUTION_POINT";
+
+    private final SupplyNetworkIndex supplyNetworkIndex;
+
+    private SupplyNetworkSnapshot plannedSnapshot;
+    private MaxFlowNetwork network;
+    private SupplyFlowPlan plan;
+
+    @Autowired
+    public SupplyCapacityPlanner(SupplyNetworkIndex supplyNetworkIndex) {
+        this.supplyNetworkIndex = supplyNetworkIndex;
+    }
+
+    public synchronized SupplyFlowPlan getPlan() {
+        SupplyNetworkSnapshot snapshot = supplyNetworkIndex.getSnapshot();
+        if (snapshot == plannedSnapshot) {
+            return plan;
+        }
+
+        int source = snapshot.depotCount();
+        int sink = source + 1;
+        long throughput;
+        boolean incremental = plannedSnapshot != null && plannedSnapshot.sharesStructureWith(snapshot)
+                && applyToggles(snapshot);
+        if (incremental) {
+            throughput = plan.getThroughput() + network.augment(source, sink);
+        } else {
+            network = buildNetwork(snapshot, source, sink);
+            throughput = network.maxFlow(source, sink);
+        }
+
+        plannedSnapshot = snapshot;
+        plan = describe(snapshot, throughput, network.sourceSide(source));
+        plan.setIncremental(incremental);
+        System.out.println("Supply capacity plan " + (incremental ? "updated" : "computed") + ": throughput "
+                + throughput + " over " + snapshot.routeCount() + " routes.");
+        return plan;
+    }
+
+    // Carries route activity changes over to the current network; false if the flow cannot be kept
+    private boolean applyToggles(SupplyNetworkSnapshot snapshot) {
+        for (int route = 0; route < snapshot.routeCount(); route++) {
+            boolean active = snapshot.isRouteActive(route);
+            if (active != plannedSnapshot.isRouteActive(route)
+                    && !network.setCapacity(route, active ? snapshot.routeCapacity(route) : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Edge i is route i; hub and distribution point edges follow
+    private MaxFlowNetwork buildNetwork(SupplyNetworkSnapshot snapshot, int source, int sink) {
+        MaxFlowNetwork.Builder builder = new MaxFlowNetwork.Builder(snapshot.depotCount() + 2);
+        for (int route = 0; route < snapshot.routeCount(); route++) {
+            builder.addEdge(snapshot.routeSource(route), snapshot.routeTarget(route),
+                    snapshot.isRouteActive(route) ? snapshot.routeCapacity(route) : 0);
+        }
+        for (int depot = 0; depot < snapshot.depotCount(); depot++) {
+            if (HUB_TYPE.equals(snapshot.depotType(depot))) {
+                builder.addEdge(source, depot, snapshot.depotStock(depot));
+            } else if (DISTRIBUTION_POINT_TYPE.equals(snapshot.depotType(depot))) {
+                builder.addEdge(depot, sink, freeCapacity(snapshot, depot));
+            }
+        }
+        return builder.build();
+    }
+
+    private SupplyFlowPlan describe(SupplyNetworkSnapshot snapshot, long throughput, boolean[] sourceSide) {
+        SupplyFlowPlan result = new SupplyFlowPlan();
+        result.setThroughput(throughput);
+        result.setComputedAt(LocalDateTime.now());
+        for (int depot = 0; depot < snapshot.depotCount(); depot++) {
+            if (HUB_TYPE.equals(snapshot.depotType(depot))) {
+                result.setHubCount(result.getHubCount() + 1);
+                result.setHubSupply(result.getHubSupply() + snapshot.depotStock(depot));
+            } else if (DISTRIBUTION_POINT_TYPE.equals(snapshot.depotType(depot))) {
+                result.setDistributionPointCount(result.getDistributionPointCount() + 1);
+                result.setDistributionDemand(result.getDistributionDemand() + freeCapacity(snapshot, depot));
+            }
+        }
+
+        for (int route = 0; route < snapshot.routeCount(); route++) {
+            long flow = network.flow(route);
+            long capacity = network.capacity(route);
+            SupplyFlowPlan.RouteFlow routeFlow = new SupplyFlowPlan.RouteFlow(
+                    snapshot.depotId(snapshot.routeSource(route)), snapshot.depotId(snapshot.routeTarget(route)),
+                    capacity, flow);
+            if (flow > 0) {
+                result.getRouteFlows().add(routeFlow);
+            }
+            if (capacity > 0 && sourceSide[snapshot.routeSource(route)] && !sourceSide[snapshot.routeTarget(route)]) {
+                result.getBottlenecks().add(routeFlow);
+            }
+        }
+        return result;
+    }
+
+    private long freeCapacity(SupplyNetworkSnapshot snapshot, int depot) {
+        return Math.max(0, snapshot.depotCapacity(depot) - snapshot.depotStock(depot));
+    }
+}
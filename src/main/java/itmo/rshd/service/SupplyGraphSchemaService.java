@@ -0,0 +1,188 @@
+package itmo.rshd.service;
+
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.driver.Cluster;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defines the supply graph schema on the JanusGraph server: typed property keys, vertex and
+ * edge labels, unique composite indexes on depotId and missileTypeId, and a vertex-centric
+ * index on SupplyRoute by (isActive, riskFactor). The management API is not reachable through
+ * a remote traversal source, so the definitions are submitted as a server-side script.
+ * Every step is idempotent and runs on each start.
+ */
+@Service
+public class SupplyGraphSchemaService {
+
+    public static final String DEPOT_ID_INDEX = "byDepotId";
+    public static final String MISSILE_TYPE_ID_INDEX = "byMissileTypeId";
+    public static final String ROUTE_INDEX = "supplyRouteByActiveRisk";
+
+    // Creates whatever is missing; data types follow what the application writes
+    private static final String DEFINE_SCHEMA_SCRIPT = """
+            def janus = %s
+            janus.tx().rollback()
+            def mgmt = janus.openManagement()
+            def key = { String name, Class type ->
+                mgmt.getPropertyKey(name) ?: mgmt.makePropertyKey(name).dataType(type)
+                        .cardinality(org.janusgraph.core.Cardinality.SINGLE).make()
+            }
+            ['name', 'type', 'securityLevel', 'transportType'].each { key(it, String) }
+            ['latitude', 'longitude', 'distance', 'range', 'effectRadius'].each { key(it, Double) }
+            ['capacity', 'currentStock', 'quantity'].each { key(it, Integer) }
+            def depotId = key('depotId', String)
+            def missileTypeId = key('missileTypeId', String)
+            def isActive = key('isActive', Boolean)
+            def riskFactor = key('riskFactor', Double)
+            // Stock counters are incremented in place; locking makes concurrent writers conflict instead of losing updates
+            ['currentStock', 'quantity'].each {
+                mgmt.setConsistency(mgmt.getPropertyKey(it), org.janusgraph.core.schema.ConsistencyModifier.LOCK)
+            }
+
+            def depot = mgmt.getVertexLabel('SupplyDepot') ?: mgmt.makeVertexLabel('SupplyDepot').make()
+            def missileType = mgmt.getVertexLabel('MissileType') ?: mgmt.makeVertexLabel('MissileType').make()
+            def route = mgmt.getEdgeLabel('SupplyRoute') ?: mgmt.makeEdgeLabel('SupplyRoute')
+                    .multiplicity(org.janusgraph.core.Multiplicity.MULTI).make()
+            mgmt.getEdgeLabel('Supplies') ?: mgmt.makeEdgeLabel('Supplies')
+                    .multiplicity(org.janusgraph.core.Multiplicity.MULTI).make()
+
+            if (!mgmt.containsGraphIndex('%s')) {
+                def index = mgmt.buildIndex('%s', org.apache.tinkerpop.gremlin.structure.Vertex)
+                        .addKey(depotId).indexOnly(depot).unique().buildCompositeIndex()
+                mgmt.setConsistency(index, org.janusgraph.core.schema.ConsistencyModifier.LOCK)
+            }
+            if (!mgmt.containsGraphIndex('%s')) {
+                def index = mgmt.buildIndex('%s', org.apache.tinkerpop.gremlin.structure.Vertex)
+                        .addKey(missileTypeId).indexOnly(missileType).unique().buildCompositeIndex()
+                mgmt.setConsistency(index, org.janusgraph.core.schema.ConsistencyModifier.LOCK)
+            }
+            if (!mgmt.containsRelationIndex(route, '%s')) {
+                mgmt.buildEdgeIndex(route, '%s', org.apache.tinkerpop.gremlin.structure.Direction.OUT,
+                        org.apache.tinkerpop.gremlin.process.traversal.Order.asc, isActive, riskFactor)
+            }
+            mgmt.commit()
+            'defined'
+            """;
+
+    // Waits for each index to be registered, reindexes existing data if needed and reports the final status
+    private static final String ENABLE_INDEXES_SCRIPT = """
+            import org.janusgraph.core.schema.SchemaAction
+            import org.janusgraph.core.schema.SchemaStatus
+            import org.janusgraph.graphdb.database.management.ManagementSystem
+            import java.time.temporal.ChronoUnit
+
+            def janus = %s
+            def result = []
+            ['%s', '%s'].each { name ->
+                ManagementSystem.awaitGraphIndexStatus(janus, name)
+                        .status(SchemaStatus.REGISTERED, SchemaStatus.ENABLED)
+                        .timeout(timeoutSeconds, ChronoUnit.SECONDS).call()
+                def mgmt = janus.openManagement()
+                def index = mgmt.getGraphIndex(name)
+                if (index.getIndexStatus(index.getFieldKeys()[0]) == SchemaStatus.REGISTERED) {
+                    mgmt.updateIndex(index, SchemaAction.REINDEX).get()
+                }
+                mgmt.commit()
+                mgmt = janus.openManagement()
+                index = mgmt.getGraphIndex(name)
+                result << name + '=' + index.getIndexStatus(index.getFieldKeys()[0])
+                mgmt.rollback()
+            }
+
+            ManagementSystem.awaitRelationIndexStatus(janus, '%s', 'SupplyRoute')
+                    .status(SchemaStatus.REGISTERED, SchemaStatus.ENABLED)
+                    .timeout(timeoutSeconds, ChronoUnit.SECONDS).call()
+            def routeMgmt = janus.openManagement()
+            def routeIndex = routeMgmt.getRelationIndex(routeMgmt.getRelationType('SupplyRoute'), '%s')
+            if (routeIndex.getIndexStatus() == SchemaStatus.REGISTERED) {
+                routeMgmt.updateIndex(routeIndex, SchemaAction.REINDEX).get()
+            }
+            routeMgmt.commit()
+            routeMgmt = janus.openManagement()
+            result << '%s=' + routeMgmt.getRelationIndex(routeMgmt.getRelationType('SupplyRoute'), '%s').getIndexStatus()
+            routeMgmt.rollback()
+            result
+            """;
+
+    private final Cluster cluster;
+    private final GraphTraversalSource g;
+
+    @Value("${janusgraph.schema.enabled:true}")
+    private boolean enabled;
+
+    @Value("${janusgraph.graph-name:graph}")
+    private String graphName;
+
+    @Value("${janusgraph.schema.index-await-timeout-seconds:60}")
+    private long indexAwaitTimeoutSeconds;
+
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    @Autowired
+    public SupplyGraphSchemaService(Cluster cluster, GraphTraversalSource g) {
+        this.cluster = cluster;
+        this.g = g;
+    }
+
+    /**
+     * Creates missing schema elements and brings the indexes to ENABLED.
+     * @return index statuses and whether lookups by depotId and missileTypeId use their index
+     */
+    public synchronized Map<String, Object> ensureSchema() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        if (!enabled) {
+            report.put("enabled", false);
+            lastReport = report;
+            return report;
+        }
+
+        System.out.println("Ensuring supply graph schema and indexes...");
+        Client client = cluster.connect();
+        try {
+            long timeoutMillis = TimeUnit.SECONDS.toMillis(indexAwaitTimeoutSeconds) * 4;
+            client.submit(String.format(DEFINE_SCHEMA_SCRIPT, graphName,
+                    DEPOT_ID_INDEX, DEPOT_ID_INDEX, MISSILE_TYPE_ID_INDEX, MISSILE_TYPE_ID_INDEX, ROUTE_INDEX, ROUTE_INDEX))
+                    .all().get(timeoutMillis, TimeUnit.MILLISECONDS);
+
+            Map<String, Object> statuses = new LinkedHashMap<>();
+            for (Result result : client.submit(String.format(ENABLE_INDEXES_SCRIPT, graphName,
+                            DEPOT_ID_INDEX, MISSILE_TYPE_ID_INDEX, ROUTE_INDEX, ROUTE_INDEX, ROUTE_INDEX, ROUTE_INDEX),
+                    Map.of("timeoutSeconds", indexAwaitTimeoutSeconds))
+                    .all().get(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                String[] status = result.getString().split("=", 2);
+                statuses.put(status[0], status.length > 1 ? status[1] : null);
+            }
+            report.put("indexes", statuses);
+            report.put("depotIdLookupUsesIndex", usesIndex(
+                    g.V().has("SupplyDepot", "depotId", "").profile().next(), DEPOT_ID_INDEX));
+            report.put("missileTypeIdLookupUsesIndex", usesIndex(
+                    g.V().has("MissileType", "missileTypeId", "").profile().next(), MISSILE_TYPE_ID_INDEX));
+            System.out.println("Supply graph schema ready: " + report);
+        } catch (Exception e) {
+            report.put("error", e.getMessage());
+            System.err.println("Error ensuring supply graph schema: " + e.getMessage());
+        } finally {
+            client.close();
+        }
+        lastReport = report;
+        return report;
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    // JanusGraph annotates index-backed steps of a profile with the name of the index used
+    private boolean usesIndex(TraversalMetrics metrics, String indexName) {
+        return metrics.toString().contains(indexName);
+    }
+}
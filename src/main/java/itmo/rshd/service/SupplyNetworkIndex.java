@@ -0,0 +1,270 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.SupplyCostFunction;
+import itmo.rshd.util.SupplyNetworkSnapshot;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process mirror of the supply graph for path queries. The snapshot is loaded from JanusGraph
+ * with two traversals and replaced wholesale; MissileSupplyGraphService marks it stale on
+ * structural changes and applies route activity and depot stock in place, so reads never wait on the graph server.
+ * Optimal paths are memoized in SupplyPathCache, which is told about every route change.
+ */
+@Service
+public class SupplyNetworkIndex {
+
+    private final GraphTraversalSource g;
+    private final SupplyPathCache pathCache;
+
+    @Value("${supply.routing.default-cost:RISK_ADJUSTED_DISTANCE}")
+    private SupplyCostFunction defaultCostFunction;
+
+    @Value("${supply.routing.max-alternatives:20}")
+    private int maxAlternatives;
+
+    private volatile SupplyNetworkSnapshot snapshot = SupplyNetworkSnapshot.EMPTY;
+    private volatile boolean stale = true;
+
+    @Autowired
+    public SupplyNetworkIndex(GraphTraversalSource g, SupplyPathCache pathCache) {
+        this.g = g;
+        this.pathCache = pathCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        // Cleared first so a change made while loading marks the new snapshot stale again
+        stale = false;
+        try {
+            SupplyNetworkSnapshot.Builder builder = new SupplyNetworkSnapshot.Builder();
+            for (Map<Object, Object> depot : g.V().hasLabel("SupplyDepot")
+                    .valueMap("depotId", "name", "type", "latitude", "longitude", "capacity", "currentStock").toList()) {
+                builder.addDepot(
+                        (String) single(depot.get("depotId")),
+                        (String) single(depot.get("name")),
+                        (String) single(depot.get("type")),
+                        number(single(depot.get("latitude")), 0),
+                        number(single(depot.get("longitude")), 0),
+                        (int) number(single(depot.get("capacity")), 0),
+                        (int) number(single(depot.get("currentStock")), 0));
+            }
+
+            for (Map<String, Object> route : g.E().hasLabel("SupplyRoute")
+                    .project("routeId", "sourceDepotId", "targetDepotId", "properties")
+                        .by(T.id)
+                        .by(__.outV().values("depotId"))
+                        .by(__.inV().values("depotId"))
+                        .by(__.valueMap())
+                    .toList()) {
+                @SuppressWarnings("unchecked")
+                Map<Object, Object> properties = (Map<Object, Object>) route.get("properties");
+                builder.addRoute(
+                        route.get("routeId"),
+                        (String) route.get("sourceDepotId"),
+                        (String) route.get("targetDepotId"),
+                        number(properties.get("distance"), 1000.0),
+                        number(properties.get("riskFactor"), 0.5),
+                        (int) number(properties.get("capacity"), 0),
+                        !Boolean.FALSE.equals(properties.get("isActive")));
+            }
+
+            snapshot = builder.build();
+            System.out.println("Supply network index loaded with " + snapshot.depotCount() + " depots and "
+                    + snapshot.routeCount() + " routes.");
+        } catch (Exception e) {
+            stale = true;
+            System.err.println("Error loading supply network index: " + e.getMessage());
+        }
+    }
+
+    // Depots or routes were added or removed; the next read reloads the snapshot
+    public void markStale() {
+        stale = true;
+    }
+
+    public synchronized void routeAdded(String sourceDepotId, String targetDepotId, double distance, double riskFactor) {
+        if (stale) {
+            // Earlier changes are not in the snapshot yet, so its bounds may miss paths they opened
+            pathCache.clear();
+            return;
+        }
+        stale = true;
+        // Depot coordinates never change, so the previous snapshot still gives valid lower bounds
+        pathCache.onRouteAvailable(snapshot, sourceDepotId, targetDepotId, distance, riskFactor);
+    }
+
+    public synchronized void setRouteActive(Object routeId, boolean isActive) {
+        int route = snapshot.routeIndex(routeId);
+        boolean wasActive = !stale && route >= 0 && snapshot.isRouteActive(route);
+        SupplyNetworkSnapshot previous = snapshot;
+        if (!stale) {
+            if (route < 0) {
+                stale = true;
+            } else {
+                snapshot = snapshot.withRouteActive(route, isActive);
+            }
+        }
+
+        // Swapped before invalidating so a path computed after the version bump sees the new state
+        if (!isActive) {
+            pathCache.onRouteDeactivated(routeId);
+        } else if (route < 0) {
+            pathCache.clear();
+        } else if (!wasActive) {
+            pathCache.onRouteAvailable(previous, previous.depotId(previous.routeSource(route)),
+                    previous.depotId(previous.routeTarget(route)),
+                    previous.routeDistance(route), previous.routeRiskFactor(route));
+        }
+    }
+
+    // Stock does not affect routing, so cached paths stay valid; only the capacity planner replans
+    public synchronized void stocksChanged(Map<String, Integer> stocks) {
+        if (stale || stocks.isEmpty()) {
+            return;
+        }
+        for (String depotId : stocks.keySet()) {
+            if (snapshot.depotIndex(depotId) < 0) {
+                stale = true;
+                return;
+            }
+        }
+        snapshot = snapshot.withDepotStocks(stocks);
+    }
+
+    public synchronized void networkCleared() {
+        stale = true;
+        pathCache.clear();
+    }
+
+    public SupplyNetworkSnapshot getSnapshot() {
+        if (stale) {
+            reload();
+        }
+        return snapshot;
+    }
+
+    public SupplyCostFunction getDefaultCostFunction() {
+        return defaultCostFunction;
+    }
+
+    /**
+     * Cheapest path over active routes, as alternating depot and route entries.
+     * @return the path, or an empty list if either depot is unknown or the target is unreachable
+     */
+    public List<Map<String, Object>> findShortestPath(String fromDepotId, String toDepotId, SupplyCostFunction costFunction) {
+        SupplyCostFunction resolved = resolve(costFunction);
+        List<Map<String, Object>> cached = pathCache.get(fromDepotId, toDepotId, resolved);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = pathCache.version();
+        SupplyNetworkSnapshot current = getSnapshot();
+        SupplyNetworkSnapshot.Path path = current.shortestPath(current.depotIndex(fromDepotId),
+                current.depotIndex(toDepotId), current.costModel(resolved), null, null);
+        if (path == null) {
+            pathCache.put(fromDepotId, toDepotId, resolved, List.of(), Set.of(), Double.POSITIVE_INFINITY, version);
+            return List.of();
+        }
+        Set<Object> routeIds = new HashSet<>();
+        for (int route : path.routes()) {
+            routeIds.add(current.routeId(route));
+        }
+        List<Map<String, Object>> result = List.copyOf(describePath(current, path));
+        pathCache.put(fromDepotId, toDepotId, resolved, result, routeIds, path.cost(), version);
+        return result;
+    }
+
+    public Map<String, Object> getPathCacheStats() {
+        return pathCache.getStats();
+    }
+
+    /**
+     * Up to k cheapest loopless paths, cheapest first. Custom weights take precedence over the
+     * cost function when any of them is given.
+     */
+    public List<Map<String, Object>> findAlternativePaths(String fromDepotId, String toDepotId, int k,
+            SupplyCostFunction costFunction, Double distanceWeight, Double riskWeight, Double capacityWeight) {
+        SupplyNetworkSnapshot current = getSnapshot();
+        SupplyNetworkSnapshot.CostModel model;
+        if (distanceWeight != null || riskWeight != null || capacityWeight != null) {
+            model = current.costModel(orZero(distanceWeight), orZero(riskWeight), orZero(capacityWeight));
+        } else {
+            model = current.costModel(resolve(costFunction));
+        }
+
+        List<SupplyNetworkSnapshot.Path> paths = current.kShortestPaths(current.depotIndex(fromDepotId),
+                current.depotIndex(toDepotId), model, Math.min(k, maxAlternatives));
+        List<Map<String, Object>> result = new ArrayList<>(paths.size());
+        for (SupplyNetworkSnapshot.Path path : paths) {
+            double distance = 0;
+            for (int route : path.routes()) {
+                distance += current.routeDistance(route);
+            }
+            Map<String, Object> option = new HashMap<>();
+            option.put("rank", result.size() + 1);
+            option.put("cost", path.cost());
+            option.put("totalDistance", distance);
+            option.put("hops", path.routes().length);
+            option.put("path", describePath(current, path));
+            result.add(option);
+        }
+        return result;
+    }
+
+    private SupplyCostFunction resolve(SupplyCostFunction costFunction) {
+        return costFunction != null ? costFunction : defaultCostFunction;
+    }
+
+    private double orZero(Double weight) {
+        return weight != null ? weight : 0;
+    }
+
+    public List<Map<String, Object>> describePath(SupplyNetworkSnapshot current, SupplyNetworkSnapshot.Path path) {
+        List<Map<String, Object>> result = new ArrayList<>(2 * path.routes().length + 1);
+        result.add(describeDepot(current, path.source()));
+        for (int route : path.routes()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("type", "route");
+            entry.put("distance", current.routeDistance(route));
+            entry.put("riskFactor", current.routeRiskFactor(route));
+            result.add(entry);
+            result.add(describeDepot(current, current.routeTarget(route)));
+        }
+        return result;
+    }
+
+    private Map<String, Object> describeDepot(SupplyNetworkSnapshot current, int depot) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("type", "depot");
+        entry.put("id", current.depotId(depot));
+        entry.put("name", current.depotName(depot));
+        return entry;
+    }
+
+    // Vertex valueMap() wraps every property in a list
+    private Object single(Object value) {
+        if (value instanceof List<?> list) {
+            return list.isEmpty() ? null : list.get(0);
+        }
+        return value;
+    }
+
+    private double number(Object value, double defaultValue) {
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+}
@@ -0,0 +1,165 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.SupplyCostFunction;
+import itmo.rshd.util.SupplyNetworkSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of optimal supply paths keyed by (from, to, cost function).
+ * Entries are dropped only when a route change can affect them: deactivating a route evicts the
+ * paths that use it, and a route becoming available evicts the paths it could shorten, judged by
+ * the same great-circle lower bound the A* search uses. Unreachable results are cached as well.
+ * Every route change bumps the version, so a path computed concurrently against the old network is not stored.
+ */
+@Service
+public class SupplyPathCache {
+
+    @Value("${supply.path-cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<PathKey, CachedPath> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PathKey, CachedPath> eldest) {
+            if (size() > maxEntries) {
+                unlinkRoutes(eldest.getKey(), eldest.getValue());
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<Object, Set<PathKey>> keysByRoute = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long version;
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized List<Map<String, Object>> get(String fromDepotId, String toDepotId, SupplyCostFunction costFunction) {
+        CachedPath cached = entries.get(new PathKey(fromDepotId, toDepotId, costFunction));
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.path();
+    }
+
+    /**
+     * @param routeIds graph ids of the routes on the path
+     * @param cost path cost, infinite if the target is unreachable
+     * @param computedAt version read before the path was computed
+     */
+    public synchronized void put(String fromDepotId, String toDepotId, SupplyCostFunction costFunction,
+            List<Map<String, Object>> path, Set<Object> routeIds, double cost, long computedAt) {
+        if (computedAt != version) {
+            return;
+        }
+        PathKey key = new PathKey(fromDepotId, toDepotId, costFunction);
+        CachedPath previous = entries.remove(key);
+        if (previous != null) {
+            unlinkRoutes(key, previous);
+        }
+        entries.put(key, new CachedPath(path, routeIds, cost));
+        for (Object routeId : routeIds) {
+            keysByRoute.computeIfAbsent(routeId, id -> new HashSet<>()).add(key);
+        }
+    }
+
+    public synchronized void onRouteDeactivated(Object routeId) {
+        version++;
+        Set<PathKey> keys = keysByRoute.remove(routeId);
+        if (keys == null) {
+            return;
+        }
+        for (PathKey key : keys) {
+            CachedPath cached = entries.remove(key);
+            if (cached != null) {
+                unlinkRoutes(key, cached);
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Evicts the paths a newly added or reactivated route could improve: those whose cost exceeds
+     * the lower bound of any path from -> source -> target -> to through the route.
+     */
+    public synchronized void onRouteAvailable(SupplyNetworkSnapshot snapshot, String sourceDepotId,
+            String targetDepotId, double distance, double riskFactor) {
+        version++;
+        int source = snapshot.depotIndex(sourceDepotId);
+        int target = snapshot.depotIndex(targetDepotId);
+        Iterator<Map.Entry<PathKey, CachedPath>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PathKey, CachedPath> entry = iterator.next();
+            PathKey key = entry.getKey();
+            int from = snapshot.depotIndex(key.fromDepotId());
+            int to = snapshot.depotIndex(key.toDepotId());
+            boolean affected = true;
+            if (source >= 0 && target >= 0 && from >= 0 && to >= 0) {
+                double perKm = snapshot.costModel(key.costFunction()).costPerKm();
+                double lowerBound = perKm * (snapshot.distanceKm(from, source) + snapshot.distanceKm(target, to))
+                        + key.costFunction().weight(distance, riskFactor);
+                affected = lowerBound < entry.getValue().cost();
+            }
+            if (affected) {
+                iterator.remove();
+                unlinkRoutes(key, entry.getValue());
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByRoute.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long lookups = hits + misses;
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? (double) hits / lookups : 0.0);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private void unlinkRoutes(PathKey key, CachedPath cached) {
+        for (Object routeId : cached.routeIds()) {
+            Set<PathKey> keys = keysByRoute.get(routeId);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByRoute.remove(routeId);
+                }
+            }
+        }
+    }
+
+    private record PathKey(String fromDepotId, String toDepotId, SupplyCostFunction costFunction) {
+    }
+
+    private record CachedPath(List<Map<String, Object>> path, Set<Object> routeIds, double cost) {
+    }
+}
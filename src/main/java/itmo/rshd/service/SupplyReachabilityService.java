@@ -0,0 +1,201 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.SupplyReachability;
+import itmo.rshd.model.websocket.SupplyPartitionAlert;
+import itmo.rshd.util.ReachabilityIndex;
+import itmo.rshd.util.SupplyNetworkSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a reachability index over the active supply routes and the list of distribution points
+ * no regional hub can reach. Route additions and status changes are applied to the index
+ * incrementally; adding depots or clearing the network rebuilds it from the supply network
+ * snapshot on next use. A partition alert is broadcast whenever a distribution point becomes
+ * cut off.
+ */
+@Service
+public class SupplyReachabilityService {
+
+    private static final String HUB_TYPE = "REGIONAL_HUB";
+    private static final String DISTRIBUTION_POINT_TYPE = "DISTRIBUTION_POINT";
+
+    private final SupplyNetworkIndex supplyNetworkIndex;
+    private final WebSocketService webSocketService;
+
+    private SupplyNetworkSnapshot builtFrom;       // Depot numbering of the index
+    private ReachabilityIndex reachability;
+    private Map<Object, int[]> activeRoutes;       // Route id -> source and target depot
+    private int[] hubs;
+    private int[] distributionPoints;
+    private volatile SupplyReachability report;
+    private volatile boolean dirty = true;
+
+    @Autowired
+    public SupplyReachabilityService(SupplyNetworkIndex supplyNetworkIndex, WebSocketService webSocketService) {
+        this.supplyNetworkIndex = supplyNetworkIndex;
+        this.webSocketService = webSocketService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void initialize() {
+        ensureBuilt();
+    }
+
+    public SupplyReachability getReachability() {
+        SupplyReachability current = report;
+        if (current != null && !dirty) {
+            return current;
+        }
+        synchronized (this) {
+            ensureBuilt();
+            return report;
+        }
+    }
+
+    /**
+     * @return whether the target depot can be supplied from the source over active routes,
+     *         or null if either depot is unknown
+     */
+    public synchronized Boolean isReachable(String fromDepotId, String toDepotId) {
+        ensureBuilt();
+        int from = builtFrom.depotIndex(fromDepotId);
+        int to = builtFrom.depotIndex(toDepotId);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return reachability.reaches(from, to);
+    }
+
+    public synchronized void onRouteAdded(Object routeId, String sourceDepotId, String targetDepotId) {
+        onRouteStatusChanged(routeId, sourceDepotId, targetDepotId, true);
+    }
+
+    public synchronized void onRouteStatusChanged(Object routeId, String sourceDepotId, String targetDepotId,
+            boolean isActive) {
+        if (dirty) {
+            // Rebuilt from a snapshot that already contains the change
+            ensureBuilt();
+            return;
+        }
+        int source = builtFrom.depotIndex(sourceDepotId);
+        int target = builtFrom.depotIndex(targetDepotId);
+        if (source < 0 || target < 0) {
+            invalidate();
+            ensureBuilt();
+            return;
+        }
+
+        if (isActive) {
+            if (activeRoutes.putIfAbsent(routeId, new int[] { source, target }) != null) {
+                return;
+            }
+            reachability.insertEdge(source, target);
+        } else {
+            int[] ends = activeRoutes.remove(routeId);
+            if (ends == null) {
+                return;
+            }
+            reachability.removeEdge(ends[0], ends[1]);
+        }
+        refresh(sourceDepotId, targetDepotId);
+    }
+
+    // Depots were added or removed; the index is rebuilt from the snapshot on next use
+    public synchronized void invalidate() {
+        dirty = true;
+    }
+
+    private void ensureBuilt() {
+        if (!dirty && reachability != null) {
+            return;
+        }
+        dirty = false;
+        SupplyNetworkSnapshot snapshot = supplyNetworkIndex.getSnapshot();
+        ReachabilityIndex.Builder builder = new ReachabilityIndex.Builder(snapshot.depotCount());
+        Map<Object, int[]> routes = new HashMap<>();
+        for (int route = 0; route < snapshot.routeCount(); route++) {
+            if (snapshot.isRouteActive(route)) {
+                builder.addEdge(snapshot.routeSource(route), snapshot.routeTarget(route));
+                routes.put(snapshot.routeId(route), new int[] { snapshot.routeSource(route), snapshot.routeTarget(route) });
+            }
+        }
+
+        List<Integer> hubList = new ArrayList<>();
+        List<Integer> distributionPointList = new ArrayList<>();
+        for (int depot = 0; depot < snapshot.depotCount(); depot++) {
+            if (HUB_TYPE.equals(snapshot.depotType(depot))) {
+                hubList.add(depot);
+            } else if (DISTRIBUTION_POINT_TYPE.equals(snapshot.depotType(depot))) {
+                distributionPointList.add(depot);
+            }
+        }
+
+        builtFrom = snapshot;
+        reachability = builder.build();
+        activeRoutes = routes;
+        hubs = hubList.stream().mapToInt(Integer::intValue).toArray();
+        distributionPoints = distributionPointList.stream().mapToInt(Integer::intValue).toArray();
+        refresh(null, null);
+    }
+
+    // Recomputes the cut-off list and alerts on distribution points that were reachable before
+    private void refresh(String sourceDepotId, String targetDepotId) {
+        BitSet reached = reachability.reachableFrom(hubs);
+        List<String> cutOff = new ArrayList<>();
+        for (int depot : distributionPoints) {
+            if (!reached.get(depot)) {
+                cutOff.add(builtFrom.depotId(depot));
+            }
+        }
+
+        SupplyReachability previous = report;
+        SupplyReachability next = new SupplyReachability();
+        next.setHubCount(hubs.length);
+        next.setDistributionPointCount(distributionPoints.length);
+        next.setComponentCount(reachability.componentCount());
+        next.setRebuilds(reachability.rebuilds());
+        next.setUpdatedAt(LocalDateTime.now());
+        next.setCutOffDistributionPoints(cutOff);
+        report = next;
+
+        if (previous == null) {
+            return;
+        }
+        Set<String> wasCutOff = new HashSet<>(previous.getCutOffDistributionPoints());
+        List<String> newlyCutOff = new ArrayList<>();
+        for (String depotId : cutOff) {
+            if (!wasCutOff.contains(depotId)) {
+                newlyCutOff.add(depotId);
+            }
+        }
+        if (newlyCutOff.isEmpty()) {
+            return;
+        }
+
+        SupplyPartitionAlert alert = new SupplyPartitionAlert();
+        alert.setDetectedAt(next.getUpdatedAt());
+        alert.setSourceDepotId(sourceDepotId);
+        alert.setTargetDepotId(targetDepotId);
+        alert.setNewlyCutOffDepotIds(newlyCutOff);
+        alert.setCutOffCount(cutOff.size());
+        alert.setDistributionPointCount(distributionPoints.length);
+        System.out.println("Supply network partition: " + newlyCutOff.size() + " distribution points cut off from regional hubs.");
+        try {
+            webSocketService.notifySupplyPartition(alert);
+        } catch (Exception e) {
+            System.err.println("Error broadcasting supply partition alert: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package itmo.rshd.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import itmo.rshd.model.UserIdsRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking client for the user-activity simulator.
+ * A run posts /start, then schedules /stop on a timer after the configured duration,
+ * so callers never wait for the simulator. Transport errors and 5xx answers are
+ * retried with exponential backoff; failures are logged and never propagated.
+ */
+@Service
+public class UserActivitySimulatorClient {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    @Value("${simulator.enabled:true}")
+    private boolean enabled;
+
+    @Value("${simulator.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${simulator.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${simulator.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${simulator.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${simulator.run-duration-ms:1000}")
+    private long runDurationMs;
+
+    @Autowired
+    public UserActivitySimulatorClient(ObjectMapper objectMapper,
+            @Value("${simulator.connect-timeout-ms:2000}") long connectTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    /**
+     * Starts a simulation for the given users and schedules its stop.
+     * @return a future completed once the run is over (stopped, or given up on)
+     */
+    public CompletableFuture<Void> runSimulation(List<String> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(new UserIdsRequest(userIds));
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not serialize simulator request: " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        System.out.println("Starting user activity simulation for " + userIds.size() + " users.");
+        HttpRequest start = request("/start", HttpRequest.BodyPublishers.ofString(body));
+
+        return sendWithRetry(start, 0)
+                .thenCompose(response -> {
+                    System.out.println("Simulator /start response: " + response.statusCode() + " Body: " + response.body());
+                    if (response.statusCode() >= 300) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    Executor afterRun = CompletableFuture.delayedExecutor(runDurationMs, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> System.out.println("Stopping user activity simulation."), afterRun)
+                            .thenCompose(ignored -> sendWithRetry(request("/stop", HttpRequest.BodyPublishers.noBody()), 0))
+                            .thenAccept(stopResponse -> System.out.println("Simulator /stop response: "
+                                    + stopResponse.statusCode() + " Body: " + stopResponse.body()));
+                })
+                .exceptionally(error -> {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    System.err.println("Error calling user-activity-simulator: " + cause);
+                    return null;
+                });
+    }
+
+    private HttpRequest request(String path, HttpRequest.BodyPublisher bodyPublisher) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(bodyPublisher)
+                .build();
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendWithRetry(HttpRequest request, int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    boolean retryable = error != null || response.statusCode() >= 500;
+                    if (retryable && attempt < maxRetries) {
+                        long delay = retryBackoffMs << attempt;
+                        Executor backoff = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+                        return CompletableFuture.runAsync(() -> { }, backoff)
+                                .thenCompose(ignored -> sendWithRetry(request, attempt + 1));
+                    }
+                    return error != null
+                            ? CompletableFuture.<HttpResponse<String>>failedFuture(error)
+                            : CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(future -> future);
+    }
+}
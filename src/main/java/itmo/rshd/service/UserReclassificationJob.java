@@ -0,0 +1,234 @@
+package itmo.rshd.service;
+
+import itmo.rshd.model.BatchCheckpoint;
+import itmo.rshd.model.Region;
+import itmo.rshd.model.User;
+import itmo.rshd.model.User.SocialStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Batch job that streams the users collection in _id order, applies rating decay and
+ * re-derives the status of every active user from the current thresholds.
+ * Only one chunk is held in memory at a time, and progress is checkpointed after each
+ * chunk so an interrupted run resumes where it stopped. Updated users are stamped with the
+ * run id in the same write, so a chunk replayed after a crash before its checkpoint is a no-op.
+ */
+@Service
+public class UserReclassificationJob {
+
+    private static final String JOB_NAME = "user-reclassification";
+
+    private final MongoTemplate mongoTemplate;
+    private final RegionService regionService;
+    private final RegionLeaderboardService regionLeaderboardService;
+
+    @Value("${batch.reclassification.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${batch.reclassification.workers:4}")
+    private int workers;
+
+    // 1.0 disables decay; otherwise ratings move towards the baseline by this factor per run
+    @Value("${batch.reclassification.decay-factor:1.0}")
+    private double decayFactor;
+
+    @Value("${batch.reclassification.decay-baseline:50}")
+    private double decayBaseline;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public UserReclassificationJob(MongoTemplate mongoTemplate, RegionService regionService,
+            RegionLeaderboardService regionLeaderboardService) {
+        this.mongoTemplate = mongoTemplate;
+        this.regionService = regionService;
+        this.regionLeaderboardService = regionLeaderboardService;
+    }
+
+    @Scheduled(cron = "${batch.reclassification.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Runs the job, resuming from the last checkpoint of an unfinished run.
+     * @return the checkpoint after the run, or null if another run is in progress
+     */
+    public BatchCheckpoint run() {
+        if (!running.compareAndSet(false, true)) {
+            System.out.println("User reclassification is already running. Skipping.");
+            return null;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers));
+        try {
+            BatchCheckpoint checkpoint = loadOrStartCheckpoint();
+            boolean resumed = checkpoint.getLastProcessedId() != null;
+            System.out.println("Starting user reclassification"
+                    + (checkpoint.getLastProcessedId() != null ? " from checkpoint " + checkpoint.getLastProcessedId() : "") + "...");
+
+            Set<String> touchedRegionIds = ConcurrentHashMap.newKeySet();
+
+            Query query = new Query(Criteria.where("active").is(true));
+            if (checkpoint.getLastProcessedId() != null) {
+                query.addCriteria(Criteria.where("id").gt(checkpoint.getLastProcessedId()));
+            }
+            query.with(Sort.by(Sort.Direction.ASC, "id"));
+            query.fields().include("id", "socialRating", "status", "districtId", "regionId", "countryId", "lastDecayRun");
+            query.cursorBatchSize(chunkSize);
+
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                Iterator<User> cursor = users.iterator();
+                List<User> chunk = new ArrayList<>(chunkSize);
+                while (cursor.hasNext()) {
+                    chunk.add(cursor.next());
+                    if (chunk.size() == chunkSize || !cursor.hasNext()) {
+                        long updated = processChunk(chunk, checkpoint.getRunId(), executor, touchedRegionIds);
+
+                        checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1).getId());
+                        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + chunk.size());
+                        checkpoint.setUpdatedCount(checkpoint.getUpdatedCount() + updated);
+                        checkpoint.setUpdatedAt(LocalDateTime.now());
+                        mongoTemplate.save(checkpoint);
+
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            }
+
+            if (checkpoint.getUpdatedCount() > 0) {
+                if (resumed) {
+                    // Regions touched before the restart are unknown, refresh all of them
+                    regionService.updateAllRegionsStatistics();
+                } else {
+                    regionService.updateRegionStatisticsBottomUp(touchedRegionIds);
+                }
+                regionLeaderboardService.rebuild();
+            }
+
+            checkpoint.setCompleted(true);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(checkpoint);
+            System.out.println("User reclassification completed. Processed " + checkpoint.getProcessedCount()
+                    + " users, updated " + checkpoint.getUpdatedCount() + ".");
+            return checkpoint;
+        } finally {
+            executor.shutdown();
+            running.set(false);
+        }
+    }
+
+    private BatchCheckpoint loadOrStartCheckpoint() {
+        BatchCheckpoint previous = mongoTemplate.findById(JOB_NAME, BatchCheckpoint.class);
+        if (previous != null && !previous.isCompleted() && previous.getRunId() > 0) {
+            return previous;
+        }
+        BatchCheckpoint checkpoint = new BatchCheckpoint();
+        checkpoint.setJobName(JOB_NAME);
+        checkpoint.setRunId(previous != null ? previous.getRunId() + 1 : 1);
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getStartedAt());
+        return mongoTemplate.save(checkpoint);
+    }
+
+    // Splits the chunk across the workers; each worker issues its own bulk writes
+    private long processChunk(List<User> chunk, long runId, ExecutorService executor, Set<String> touchedRegionIds) {
+        int workerCount = Math.max(1, workers);
+        int sliceSize = (chunk.size() + workerCount - 1) / workerCount;
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<User> slice = chunk.subList(from, Math.min(chunk.size(), from + sliceSize));
+            tasks.add(() -> reclassifySlice(slice, runId, touchedRegionIds));
+        }
+
+        long updated = 0;
+        try {
+            for (Future<Long> future : executor.invokeAll(tasks)) {
+                updated += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User reclassification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("User reclassification chunk failed", e.getCause());
+        }
+        return updated;
+    }
+
+    private long reclassifySlice(List<User> slice, long runId, Set<String> touchedRegionIds) {
+        BulkOperations userOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        BulkOperations regionOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class);
+        long updated = 0;
+        boolean hasEmbeddedCopies = false;
+
+        for (User user : slice) {
+            if (user.getLastDecayRun() >= runId) {
+                // Already updated by this run before a restart; decaying again would apply it twice
+                continue;
+            }
+            double rating = decayBaseline + (user.getSocialRating() - decayBaseline) * decayFactor;
+            rating = Math.max(0, Math.min(100, rating));
+            SocialStatus status = SocialStatus.fromRating(rating);
+            if (rating == user.getSocialRating() && status == user.getStatus()) {
+                continue;
+            }
+
+            userOps.updateOne(
+                    new Query(Criteria.where("id").is(user.getId()).and("lastDecayRun").not().gte(runId)),
+                    new Update().set("socialRating", rating).set("status", status).set("lastDecayRun", runId));
+
+            // Keep the copy embedded in the user's most specific region in sync
+            String embeddingRegionId = embeddingRegionId(user);
+            if (embeddingRegionId != null) {
+                regionOps.updateOne(
+                        new Query(Criteria.where("id").is(embeddingRegionId).and("users.id").is(user.getId())),
+                        new Update().set("users.$.socialRating", rating).set("users.$.status", status));
+                touchedRegionIds.add(embeddingRegionId);
+                hasEmbeddedCopies = true;
+            }
+            updated++;
+        }
+
+        // Embedded copies first: a replay recomputes them from the same unstamped rating and writes
+        // the same values, while the user write stamps the run and must come last
+        if (hasEmbeddedCopies) {
+            regionOps.execute();
+        }
+        if (updated > 0) {
+            userOps.execute();
+        }
+        return updated;
+    }
+
+    private String embeddingRegionId(User user) {
+        if (user.getDistrictId() != null && !user.getDistrictId().equals("none")) {
+            return user.getDistrictId();
+        } else if (user.getRegionId() != null && !user.getRegionId().equals("none")) {
+            return user.getRegionId();
+        }
+        return user.getCountryId();
+    }
+}
@@ -1,31 +1,59 @@
 package itmo.rshd.service;
 
+import itmo.rshd.model.BulkRatingResult;
 import itmo.rshd.model.GeoLocation;
 import itmo.rshd.model.User;
 import itmo.rshd.model.User.SocialStatus;
+import itmo.rshd.model.websocket.RatingUpdate;
 import itmo.rshd.repository.UserRepository;
 import itmo.rshd.model.Region;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final RegionService regionService;
+    private final RegionLeaderboardService regionLeaderboardService;
+    private final RatingInfluenceService ratingInfluenceService;
+    private final RatingAnomalyDetector ratingAnomalyDetector;
+    private final RegionPathService regionPathService;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
-    public UserService(UserRepository userRepository, RegionService regionService) {
+    public UserService(UserRepository userRepository, RegionService regionService,
+            RegionLeaderboardService regionLeaderboardService, RatingInfluenceService ratingInfluenceService,
+            RatingAnomalyDetector ratingAnomalyDetector, RegionPathService regionPathService,
+            MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
         this.regionService = regionService;
+        this.regionLeaderboardService = regionLeaderboardService;
+        this.ratingInfluenceService = ratingInfluenceService;
+        this.ratingAnomalyDetector = ratingAnomalyDetector;
+        this.regionPathService = regionPathService;
+        this.mongoTemplate = mongoTemplate;
     }
 
     public User createUser(User user) {
+        regionPathService.applyPath(user);
         User savedUser = userRepository.save(user);
+        regionLeaderboardService.updateUser(savedUser);
 
         if (savedUser.getDistrictId() != null && !savedUser.getDistrictId().equals("none")) {
             regionService.getRegionById(savedUser.getDistrictId()).ifPresent(region -> {
@@ -49,7 +77,10 @@ public class UserService {
     }
 
     public User updateUser(User user) {
-        return userRepository.save(user);
+        regionPathService.applyPath(user);
+        User savedUser = userRepository.save(user);
+        regionLeaderboardService.updateUser(savedUser);
+        return savedUser;
     }
 
     public void deleteUser(String id) {
@@ -59,6 +90,7 @@ public class UserService {
             String districtId = userToDelete.getDistrictId();
 
             userRepository.deleteById(id);
+            regionLeaderboardService.removeUser(id);
 
             if (districtId != null && !districtId.equals("none")) {
                 regionService.getRegionById(districtId).ifPresent(oldRegion -> {
@@ -83,8 +115,10 @@ public class UserService {
             user.setRegionId(regionId);
             user.setDistrictId(districtId);
             user.setCountryId(countryId);
+            regionPathService.applyPath(user);
             user.setLastLocationUpdateTimestamp(System.currentTimeMillis());
             User updatedUser = userRepository.save(user);
+            regionLeaderboardService.updateUser(updatedUser);
 
             if (oldDistrictId != null && !oldDistrictId.equals("none")
                     && !oldDistrictId.equals(updatedUser.getDistrictId())) {
@@ -116,20 +150,14 @@ public class UserService {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
+            newRating = Math.max(0, Math.min(100, newRating));
             user.setSocialRating(newRating);
 
             // Update user status based on rating
-            if (newRating >= 90) {
-                user.setStatus(SocialStatus.VIP);
-            } else if (newRating >= 70) {
-                user.setStatus(SocialStatus.IMPORTANT);
-            } else if (newRating >= 40) {
-                user.setStatus(SocialStatus.REGULAR);
-            } else {
-                user.setStatus(SocialStatus.LOW);
-            }
+            user.setStatus(SocialStatus.fromRating(newRating));
 
             User updatedUser = userRepository.save(user);
+            regionLeaderboardService.updateUser(updatedUser);
 
             // Update user in the region's embedded list
             if (updatedUser.getDistrictId() != null && !updatedUser.getDistrictId().equals("none")) {
@@ -210,28 +238,17 @@ public class UserService {
         if (raterOpt.isPresent() && targetOpt.isPresent()) {
             User rater = raterOpt.get();
             User target = targetOpt.get();
-            double ratingAction = (ratingChange > 0 ? 1.0 : -1.0); // +1.0 for like, -1.0 for dislike
-
-            int raterStatusWeight = getStatusWeight(rater.getStatus());
-            int targetStatusWeight = getStatusWeight(target.getStatus());
-            double statusMultiplier = (double) raterStatusWeight / Math.max(1, targetStatusWeight);
-            double raterActualRating = Math.max(0.0, rater.getSocialRating());
-            double targetSocialRatingForCalc = Math.max(1.0, target.getSocialRating());
-            double ratingRatio = raterActualRating / targetSocialRatingForCalc;
-            double ratingRatioMultiplier = Math.min(ratingRatio * 0.2, 2.5);
-            double overallMultiplier = statusMultiplier * ratingRatioMultiplier;
-            double impact = ratingAction * overallMultiplier;
 
+            double impact = calculateRatingImpact(rater, target, ratingChange);
             double newTargetRating = target.getSocialRating() + impact;
             newTargetRating = Math.max(0, Math.min(100, newTargetRating));
             System.out.println("New target rating: " + newTargetRating);
             System.out.println("Impact: " + impact);
-            System.out.println("Status multiplier: " + statusMultiplier);
-            System.out.println("Rating ratio multiplier: " + ratingRatioMultiplier);
-            System.out.println("Overall multiplier: " + overallMultiplier);
             target.setSocialRating(newTargetRating);
             updateUserStatusBasedOnRating(target);
             User updatedTarget = userRepository.save(target);
+            regionLeaderboardService.updateUser(updatedTarget);
+            ratingInfluenceService.recordInteraction(raterId, targetId, ratingChange);
             if (updatedTarget.getDistrictId() != null && !updatedTarget.getDistrictId().equals("none")) {
                 String districtId = updatedTarget.getDistrictId();
                 regionService.getRegionById(districtId).ifPresent(region -> {
@@ -247,6 +264,122 @@ public class UserService {
         return null;
     }
 
+    /**
+     * Applies a batch of likes/dislikes with one prefetch of all raters and targets,
+     * one bulk write for users, one for the embedded region copies and a single
+     * statistics pass over the affected regions.
+     * Updates are applied in order, so later ratings see the effect of earlier ones.
+     */
+    public BulkRatingResult applyRatingUpdates(List<RatingUpdate> ratingUpdates) {
+        BulkRatingResult result = new BulkRatingResult();
+        result.setReceived(ratingUpdates.size());
+
+        // Screen the batch first so shed bursts never cost a read or a write
+        List<RatingUpdate> acceptedUpdates = new ArrayList<>(ratingUpdates.size());
+        Set<String> involvedIds = new LinkedHashSet<>();
+        for (RatingUpdate ratingUpdate : ratingUpdates) {
+            if (ratingUpdate.getUserId() == null || ratingUpdate.getTargetUserId() == null) {
+                acceptedUpdates.add(ratingUpdate);
+                continue;
+            }
+            RatingAnomalyDetector.Verdict verdict = ratingAnomalyDetector.check(
+                    ratingUpdate.getUserId(), ratingUpdate.getTargetUserId());
+            if (verdict == RatingAnomalyDetector.Verdict.SHED) {
+                result.setShed(result.getShed() + 1);
+                continue;
+            }
+            if (verdict == RatingAnomalyDetector.Verdict.FLAG) {
+                result.setFlagged(result.getFlagged() + 1);
+            }
+            acceptedUpdates.add(ratingUpdate);
+            involvedIds.add(ratingUpdate.getUserId());
+            involvedIds.add(ratingUpdate.getTargetUserId());
+        }
+
+        Map<String, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(involvedIds)) {
+            usersById.put(user.getId(), user);
+        }
+
+        Map<String, User> changedTargets = new LinkedHashMap<>();
+        for (RatingUpdate ratingUpdate : acceptedUpdates) {
+            User rater = ratingUpdate.getUserId() != null ? usersById.get(ratingUpdate.getUserId()) : null;
+            User target = ratingUpdate.getTargetUserId() != null ? usersById.get(ratingUpdate.getTargetUserId()) : null;
+            if (rater == null || target == null) {
+                result.setSkipped(result.getSkipped() + 1);
+                continue;
+            }
+
+            double impact = calculateRatingImpact(rater, target, ratingUpdate.getRatingChange());
+            target.setSocialRating(Math.max(0, Math.min(100, target.getSocialRating() + impact)));
+            updateUserStatusBasedOnRating(target);
+            changedTargets.put(target.getId(), target);
+            ratingInfluenceService.recordInteraction(rater.getId(), target.getId(), ratingUpdate.getRatingChange());
+            result.setApplied(result.getApplied() + 1);
+        }
+
+        if (changedTargets.isEmpty()) {
+            return result;
+        }
+
+        BulkOperations userOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        BulkOperations regionOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class);
+        boolean hasEmbeddedCopies = false;
+        Set<String> affectedRegionIds = new LinkedHashSet<>();
+
+        for (User target : changedTargets.values()) {
+            userOps.updateOne(
+                    new Query(Criteria.where("id").is(target.getId())),
+                    new Update().set("socialRating", target.getSocialRating()).set("status", target.getStatus()));
+
+            // Same embedded-list maintenance as the single rating path, without loading the region
+            if (target.getDistrictId() != null && !target.getDistrictId().equals("none")) {
+                regionOps.updateOne(
+                        new Query(Criteria.where("id").is(target.getDistrictId()).and("users.id").is(target.getId())),
+                        new Update().set("users.$.socialRating", target.getSocialRating())
+                                .set("users.$.status", target.getStatus()));
+                hasEmbeddedCopies = true;
+                affectedRegionIds.add(target.getDistrictId());
+            } else if (target.getRegionId() != null && !target.getRegionId().equals("none")) {
+                affectedRegionIds.add(target.getRegionId());
+            }
+            if (target.getCountryId() != null) {
+                affectedRegionIds.add(target.getCountryId());
+            }
+        }
+
+        userOps.execute();
+        if (hasEmbeddedCopies) {
+            regionOps.execute();
+        }
+
+        List<Region> updatedRegions = regionService.updateRegionStatisticsBottomUp(affectedRegionIds);
+
+        for (User target : changedTargets.values()) {
+            regionLeaderboardService.updateUser(target);
+        }
+
+        result.setUsersUpdated(changedTargets.size());
+        result.setRegionsUpdated(updatedRegions.size());
+        result.getUpdatedUsers().addAll(changedTargets.values());
+        return result;
+    }
+
+    // Rating delta a rater applies to a target; only the sign of ratingChange matters
+    private double calculateRatingImpact(User rater, User target, double ratingChange) {
+        double ratingAction = (ratingChange > 0 ? 1.0 : -1.0); // +1.0 for like, -1.0 for dislike
+
+        int raterStatusWeight = getStatusWeight(rater.getStatus());
+        int targetStatusWeight = getStatusWeight(target.getStatus());
+        double statusMultiplier = (double) raterStatusWeight / Math.max(1, targetStatusWeight);
+        double raterActualRating = Math.max(0.0, rater.getSocialRating());
+        double targetSocialRatingForCalc = Math.max(1.0, target.getSocialRating());
+        double ratingRatio = raterActualRating / targetSocialRatingForCalc;
+        double ratingRatioMultiplier = Math.min(ratingRatio * 0.2, 2.5);
+        double overallMultiplier = statusMultiplier * ratingRatioMultiplier;
+        return ratingAction * overallMultiplier;
+    }
+
     private int getStatusWeight(User.SocialStatus status) {
         switch (status) {
             case VIP:
@@ -264,16 +397,7 @@ public class UserService {
 
     // Helper method to update status based on rating
     private void updateUserStatusBasedOnRating(User user) {
-        double rating = user.getSocialRating();
-        if (rating >= 90) {
-            user.setStatus(SocialStatus.VIP);
-        } else if (rating >= 70) {
-            user.setStatus(SocialStatus.IMPORTANT);
-        } else if (rating >= 40) {
-            user.setStatus(SocialStatus.REGULAR);
-        } else {
-            user.setStatus(SocialStatus.LOW);
-        }
+        user.setStatus(SocialStatus.fromRating(user.getSocialRating()));
     }
 
     // Helper method to update region statistics for a user's regions
@@ -1,8 +1,14 @@
 package itmo.rshd.service;
 
+import itmo.rshd.model.FleetSummary;
+import itmo.rshd.model.Job;
 import itmo.rshd.model.Region;
 import itmo.rshd.model.User;
+import itmo.rshd.model.websocket.LeaderboardRankUpdate;
+import itmo.rshd.model.websocket.MaintenanceScanSummary;
 import itmo.rshd.model.websocket.MissileLaunch;
+import itmo.rshd.model.websocket.RatingAnomalyAlert;
+import itmo.rshd.model.websocket.SupplyPartitionAlert;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -65,4 +71,46 @@ public class WebSocketService {
                 updatedUser
         );
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Broadcast a rank change on a region's leaderboard to its subscribers
+     */
+    public void notifyLeaderboardRankChange(LeaderboardRankUpdate rankUpdate) {
+        messagingTemplate.convertAndSend("/topic/leaderboard/" + rankUpdate.getRegionId(), rankUpdate);
+    }
+
+    /**
+     * Broadcast a rating burst that crossed an anomaly threshold
+     */
+    public void notifyRatingAnomaly(RatingAnomalyAlert alert) {
+        messagingTemplate.convertAndSend("/topic/rating-anomaly", alert);
+    }
+
+    /**
+     * Broadcast the state and progress of a background job
+     */
+    public void notifyJobProgress(Job job) {
+        messagingTemplate.convertAndSend("/topic/job-progress", job);
+    }
+
+    /**
+     * Broadcast the outcome of a missile maintenance scan
+     */
+    public void notifyMaintenanceScan(MaintenanceScanSummary summary) {
+        messagingTemplate.convertAndSend("/topic/missile-maintenance", summary);
+    }
+
+    /**
+     * Broadcast the current missile fleet counters
+     */
+    public void notifyFleetSummary(FleetSummary summary) {
+        messagingTemplate.convertAndSend("/topic/fleet-summary", summary);
+    }
+
+    /**
+     * Broadcast distribution points that lost every route from the regional hubs
+     */
+    public void notifySupplyPartition(SupplyPartitionAlert alert) {
+        messagingTemplate.convertAndSend("/topic/supply-partition", alert);
+    }
+}
@@ -0,0 +1,103 @@
+package itmo.rshd.util;
+
+import itmo.rshd.config.JanusGraphConfig;
+import itmo.rshd.config.JanusGraphConfig.GraphSerializer;
+import org.apache.tinkerpop.gremlin.driver.Cluster;
+import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource.traversal;
+
+/**
+ * Times the supply graph traversals the application runs most (depot listing, route listing and
+ * a stock update) over GraphBinary and GraphSON, each on its own cluster with the configured pool.
+ * Enabled with janusgraph.benchmark.enabled=true; results are printed once the application is ready.
+ */
+@Component
+@ConditionalOnProperty(name = "janusgraph.benchmark.enabled", havingValue = "true")
+public class GraphSerializerBenchmark {
+
+    private final JanusGraphConfig janusGraphConfig;
+
+    @Value("${janusgraph.benchmark.warmup-iterations:20}")
+    private int warmupIterations;
+
+    @Value("${janusgraph.benchmark.iterations:100}")
+    private int iterations;
+
+    @Autowired
+    public GraphSerializerBenchmark(JanusGraphConfig janusGraphConfig) {
+        this.janusGraphConfig = janusGraphConfig;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        System.out.println("Running graph serializer benchmark (" + iterations + " iterations per traversal)...");
+        for (GraphSerializer format : GraphSerializer.values()) {
+            Cluster cluster = janusGraphConfig.createCluster(format);
+            GraphTraversalSource g = traversal().withRemote(DriverRemoteConnection.using(cluster, "g"));
+            try {
+                measure(format, "depot listing", () -> g.V().hasLabel("SupplyDepot")
+                        .valueMap("depotId", "name", "latitude", "longitude", "capacity", "currentStock", "type", "securityLevel")
+                        .toList());
+                measure(format, "route listing", () -> g.E().hasLabel("SupplyRoute")
+                        .project("sourceDepotId", "targetDepotId", "properties")
+                            .by(__.outV().values("depotId"))
+                            .by(__.inV().values("depotId"))
+                            .by(__.valueMap())
+                        .toList());
+
+                // Rewrites a depot's stock with its own value, so the benchmark leaves the data unchanged
+                List<Object> depotIds = g.V().hasLabel("SupplyDepot").limit(1).values("depotId").toList();
+                if (!depotIds.isEmpty()) {
+                    Object depotId = depotIds.get(0);
+                    measure(format, "stock update", () -> g.V().has("SupplyDepot", "depotId", depotId)
+                            .property("currentStock", __.values("currentStock"))
+                            .iterate());
+                }
+            } catch (Exception e) {
+                System.err.println("Graph serializer benchmark failed for " + format + ": " + e.getMessage());
+            } finally {
+                closeQuietly(g);
+                cluster.close();
+            }
+        }
+    }
+
+    // Closed outside try-with-resources because close() declares InterruptedException
+    private void closeQuietly(GraphTraversalSource g) {
+        try {
+            g.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error closing benchmark traversal source: " + e.getMessage());
+        }
+    }
+
+    private void measure(GraphSerializer format, String name, Runnable traversal) {
+        for (int i = 0; i < warmupIterations; i++) {
+            traversal.run();
+        }
+        long[] nanos = new long[Math.max(1, iterations)];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            traversal.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0) / 1e6;
+        System.out.printf("%-11s %-14s mean %8.3f ms  p50 %8.3f ms  p95 %8.3f ms%n", format, name, mean,
+                nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.95)] / 1e6);
+    }
+}
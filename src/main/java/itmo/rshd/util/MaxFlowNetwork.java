@@ -0,0 +1,265 @@
+package itmo.rshd.util;
+
+import java.util.Arrays;
+
+/**
+ * Residual flow network on primitive arrays. Arcs are stored in CSR order per node, each paired
+ * with its reverse arc. Max flow is computed with FIFO push-relabel; after a capacity increase the
+ * current flow can be extended with augmenting paths instead of starting over.
+ */
+public final class MaxFlowNetwork {
+
+    private final int nodeCount;
+    private final int[] offsets;
+    private final int[] heads;
+    private final int[] reverse;
+    private final long[] capacity;
+    private final long[] residual;
+    private final int[] arcOfEdge; // Forward arc of each edge, in the order edges were added
+
+    private MaxFlowNetwork(int nodeCount, int[] offsets, int[] heads, int[] reverse, long[] capacity, int[] arcOfEdge) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.reverse = reverse;
+        this.capacity = capacity;
+        this.residual = capacity.clone();
+        this.arcOfEdge = arcOfEdge;
+    }
+
+    public long flow(int edge) {
+        int arc = arcOfEdge[edge];
+        return capacity[arc] - residual[arc];
+    }
+
+    public long capacity(int edge) {
+        return capacity[arcOfEdge[edge]];
+    }
+
+    /**
+     * Changes the capacity of an edge while keeping the current flow.
+     * @return false if the edge carries more flow than the new capacity allows
+     */
+    public boolean setCapacity(int edge, long newCapacity) {
+        int arc = arcOfEdge[edge];
+        long flow = capacity[arc] - residual[arc];
+        if (flow > newCapacity) {
+            return false;
+        }
+        capacity[arc] = newCapacity;
+        residual[arc] = newCapacity - flow;
+        return true;
+    }
+
+    /**
+     * FIFO push-relabel from a zero flow, with heights initialised to exact distances to the sink.
+     * @return the value of the maximum flow
+     */
+    public long maxFlow(int source, int sink) {
+        System.arraycopy(capacity, 0, residual, 0, capacity.length);
+        int[] height = distancesToSink(sink);
+        height[source] = nodeCount;
+        long[] excess = new long[nodeCount];
+        int[] current = Arrays.copyOf(offsets, nodeCount);
+        boolean[] queued = new boolean[nodeCount];
+        int[] queue = new int[nodeCount];
+        int queueHead = 0;
+        int queueSize = 0;
+
+        for (int a = offsets[source]; a < offsets[source + 1]; a++) {
+            long amount = residual[a];
+            if (amount > 0) {
+                push(a, amount, excess);
+                int v = heads[a];
+                if (v != sink && v != source && !queued[v]) {
+                    queued[v] = true;
+                    queue[(queueHead + queueSize++) % nodeCount] = v;
+                }
+            }
+        }
+
+        while (queueSize > 0) {
+            int u = queue[queueHead];
+            queueHead = (queueHead + 1) % nodeCount;
+            queueSize--;
+            queued[u] = false;
+
+            while (excess[u] > 0) {
+                if (current[u] == offsets[u + 1]) {
+                    // Relabel: one above the lowest neighbour still reachable in the residual graph
+                    int lowest = 2 * nodeCount;
+                    for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                        if (residual[a] > 0) {
+                            lowest = Math.min(lowest, height[heads[a]]);
+                        }
+                    }
+                    height[u] = lowest + 1;
+                    current[u] = offsets[u];
+                    if (height[u] > 2 * nodeCount) {
+                        break;
+                    }
+                    continue;
+                }
+                int a = current[u];
+                int v = heads[a];
+                if (residual[a] > 0 && height[u] == height[v] + 1) {
+                    push(a, Math.min(excess[u], residual[a]), excess);
+                    if (v != sink && v != source && !queued[v]) {
+                        queued[v] = true;
+                        queue[(queueHead + queueSize++) % nodeCount] = v;
+                    }
+                } else {
+                    current[u]++;
+                }
+            }
+        }
+        return excess[sink];
+    }
+
+    /**
+     * Extends the current flow with shortest augmenting paths until none is left.
+     * @return the flow added
+     */
+    public long augment(int source, int sink) {
+        long added = 0;
+        int[] via = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        while (true) {
+            Arrays.fill(via, -1);
+            via[source] = Integer.MAX_VALUE;
+            int queueHead = 0;
+            int queueTail = 0;
+            queue[queueTail++] = source;
+            while (queueHead < queueTail && via[sink] < 0) {
+                int u = queue[queueHead++];
+                for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                    int v = heads[a];
+                    if (residual[a] > 0 && via[v] < 0) {
+                        via[v] = a;
+                        queue[queueTail++] = v;
+                    }
+                }
+            }
+            if (via[sink] < 0) {
+                return added;
+            }
+
+            long bottleneck = Long.MAX_VALUE;
+            for (int v = sink; v != source; v = heads[reverse[via[v]]]) {
+                bottleneck = Math.min(bottleneck, residual[via[v]]);
+            }
+            for (int v = sink; v != source; v = heads[reverse[via[v]]]) {
+                residual[via[v]] -= bottleneck;
+                residual[reverse[via[v]]] += bottleneck;
+            }
+            added += bottleneck;
+        }
+    }
+
+    /**
+     * Nodes reachable from the source in the residual graph; the edges leaving this set form a minimum cut.
+     */
+    public boolean[] sourceSide(int source) {
+        boolean[] reached = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int size = 0;
+        reached[source] = true;
+        stack[size++] = source;
+        while (size > 0) {
+            int u = stack[--size];
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                int v = heads[a];
+                if (residual[a] > 0 && !reached[v]) {
+                    reached[v] = true;
+                    stack[size++] = v;
+                }
+            }
+        }
+        return reached;
+    }
+
+    private void push(int arc, long amount, long[] excess) {
+        residual[arc] -= amount;
+        residual[reverse[arc]] += amount;
+        excess[heads[reverse[arc]]] -= amount;
+        excess[heads[arc]] += amount;
+    }
+
+    // Breadth-first distances to the sink over arcs with residual capacity; unreachable nodes get nodeCount
+    private int[] distancesToSink(int sink) {
+        int[] distance = new int[nodeCount];
+        Arrays.fill(distance, nodeCount);
+        int[] queue = new int[nodeCount];
+        int queueHead = 0;
+        int queueTail = 0;
+        distance[sink] = 0;
+        queue[queueTail++] = sink;
+        while (queueHead < queueTail) {
+            int v = queue[queueHead++];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                // Arc a leads v -> u, so its reverse u -> v is what can carry flow towards the sink
+                int u = heads[a];
+                if (residual[reverse[a]] > 0 && distance[u] == nodeCount) {
+                    distance[u] = distance[v] + 1;
+                    queue[queueTail++] = u;
+                }
+            }
+        }
+        return distance;
+    }
+
+    public static class Builder {
+
+        private final int nodeCount;
+        private int[] tails = new int[16];
+        private int[] headsOfEdges = new int[16];
+        private long[] capacities = new long[16];
+        private int edgeCount;
+
+        public Builder(int nodeCount) {
+            this.nodeCount = nodeCount;
+        }
+
+        // Adds a directed edge and returns its index
+        public int addEdge(int from, int to, long edgeCapacity) {
+            if (edgeCount == tails.length) {
+                tails = Arrays.copyOf(tails, edgeCount * 2);
+                headsOfEdges = Arrays.copyOf(headsOfEdges, edgeCount * 2);
+                capacities = Arrays.copyOf(capacities, edgeCount * 2);
+            }
+            tails[edgeCount] = from;
+            headsOfEdges[edgeCount] = to;
+            capacities[edgeCount] = Math.max(0, edgeCapacity);
+            return edgeCount++;
+        }
+
+        public MaxFlowNetwork build() {
+            int[] offsets = new int[nodeCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[tails[e] + 1]++;
+                offsets[headsOfEdges[e] + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            int arcCount = 2 * edgeCount;
+            int[] heads = new int[arcCount];
+            int[] reverse = new int[arcCount];
+            long[] capacity = new long[arcCount];
+            int[] arcOfEdge = new int[edgeCount];
+            int[] cursor = Arrays.copyOf(offsets, nodeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                int forward = cursor[tails[e]]++;
+                int backward = cursor[headsOfEdges[e]]++;
+                heads[forward] = headsOfEdges[e];
+                heads[backward] = tails[e];
+                reverse[forward] = backward;
+                reverse[backward] = forward;
+                capacity[forward] = capacities[e];
+                arcOfEdge[e] = forward;
+            }
+            return new MaxFlowNetwork(nodeCount, offsets, heads, reverse, capacity, arcOfEdge);
+        }
+    }
+}
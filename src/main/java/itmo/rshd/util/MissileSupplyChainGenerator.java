@@ -1,7 +1,6 @@
 package itmo.rshd.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -10,6 +9,7 @@ import org.springframework.data.geo.Point;
 import itmo.rshd.repository.RegionRepository;
 import itmo.rshd.model.Region;
 import itmo.rshd.model.GeoLocation;
+import itmo.rshd.service.GraphBulkLoader;
 
 import java.util.*;
 
@@ -18,12 +18,15 @@ public class MissileSupplyChainGenerator implements CommandLineRunner {
 
     private final GraphTraversalSource g;
     private final RegionRepository regionRepository;
+    private final GraphBulkLoader graphBulkLoader;
     private final Random random = new Random();
 
     @Autowired
-    public MissileSupplyChainGenerator(GraphTraversalSource g, RegionRepository regionRepository) {
+    public MissileSupplyChainGenerator(GraphTraversalSource g, RegionRepository regionRepository,
+            GraphBulkLoader graphBulkLoader) {
         this.g = g;
         this.regionRepository = regionRepository;
+        this.graphBulkLoader = graphBulkLoader;
     }
 
     @Override
@@ -35,56 +38,57 @@ public class MissileSupplyChainGenerator implements CommandLineRunner {
         }
 
         System.out.println("Generating missile supply chain...");
+        long started = System.currentTimeMillis();
+        List<Map<String, Object>> depots = new ArrayList<>();
+        List<String[]> routeEnds = new ArrayList<>();
+        List<Map<String, Object>> routeProperties = new ArrayList<>();
         
         // Create main hubs in federal regions
         List<Region> federalRegions = regionRepository.findByType(Region.RegionType.REGION);
-        Map<String, Vertex> regionalHubs = createRegionalHubs(federalRegions);
+        Map<String, String> regionalHubs = createRegionalHubs(federalRegions, depots, routeEnds, routeProperties);
         
         // Create local depots in cities
         List<Region> cities = regionRepository.findByType(Region.RegionType.CITY);
-        Map<String, Vertex> cityDepots = createCityDepots(cities, regionalHubs);
+        Map<String, String> cityDepots = createCityDepots(cities, regionalHubs, depots, routeEnds, routeProperties);
         
         // Create distribution points in districts
         List<Region> districts = regionRepository.findByType(Region.RegionType.DISTRICT);
-        createDistributionPoints(districts, cityDepots);
+        createDistributionPoints(districts, cityDepots, depots, routeEnds, routeProperties);
 
-        System.out.println("Supply chain generation completed!");
+        // Load everything in batched traversals
+        Map<Object, Object> vertexIds = graphBulkLoader.upsertVertices("SupplyDepot", "depotId", depots);
+        List<GraphBulkLoader.EdgeRow> routes = new ArrayList<>(routeEnds.size());
+        for (int i = 0; i < routeEnds.size(); i++) {
+            routes.add(new GraphBulkLoader.EdgeRow(
+                    vertexIds.get(routeEnds.get(i)[0]), vertexIds.get(routeEnds.get(i)[1]), routeProperties.get(i)));
+        }
+        graphBulkLoader.upsertEdges("SupplyRoute", routes);
+
+        System.out.println("Supply chain generation completed! Loaded " + depots.size() + " depots and "
+                + routes.size() + " routes in " + (System.currentTimeMillis() - started) + " ms.");
     }
 
-    private Map<String, Vertex> createRegionalHubs(List<Region> federalRegions) {
-        Map<String, Vertex> hubs = new HashMap<>();
+    private Map<String, String> createRegionalHubs(List<Region> federalRegions, List<Map<String, Object>> depots,
+            List<String[]> routeEnds, List<Map<String, Object>> routeProperties) {
+        Map<String, String> hubs = new HashMap<>();
         
         for (Region region : federalRegions) {
             GeoLocation center = calculateCenterPoint(region.getBoundaries());
             
-            Vertex hub = g.addV("SupplyDepot")
-                .property("depotId", "hub-" + region.getId())
-                .property("name", region.getName() + " Regional Hub")
-                .property("type", "REGIONAL_HUB")
-                .property("latitude", center.getLatitude())
-                .property("longitude", center.getLongitude())
-                .property("capacity", 10000 + random.nextInt(5000))
-                .property("currentStock", 8000 + random.nextInt(2000))
-                .property("securityLevel", "HIGH")
-                .next();
+            String depotId = "hub-" + region.getId();
+            depots.add(depot(depotId, region.getName() + " Regional Hub", "REGIONAL_HUB", center,
+                    10000 + random.nextInt(5000), 8000 + random.nextInt(2000), "HIGH"));
             
-            hubs.put(region.getId(), hub);
+            hubs.put(region.getId(), depotId);
         }
         
         // Connect hubs with supply routes
-        for (Vertex hub1 : hubs.values()) {
-            for (Vertex hub2 : hubs.values()) {
-                if (hub1 != hub2) {
-                    g.addE("SupplyRoute")
-                        .from(hub1)
-                        .to(hub2)
-                        .property("capacity", 1000 + random.nextInt(500))
-                        .property("securityLevel", "HIGH")
-                        .property("transportType", "ARMORED_CONVOY")
-                        .property("distance", random.nextDouble() * 1000 + 200)
-                        .property("riskFactor", random.nextDouble() * 0.5)
-                        .property("isActive", true)
-                        .next();
+        for (String hub1 : hubs.values()) {
+            for (String hub2 : hubs.values()) {
+                if (!hub1.equals(hub2)) {
+                    routeEnds.add(new String[] { hub1, hub2 });
+                    routeProperties.add(route(1000 + random.nextInt(500), "HIGH", "ARMORED_CONVOY",
+                            random.nextDouble() * 1000 + 200, random.nextDouble() * 0.5));
                 }
             }
         }
@@ -92,78 +96,78 @@ public class MissileSupplyChainGenerator implements CommandLineRunner {
         return hubs;
     }
 
-    private Map<String, Vertex> createCityDepots(List<Region> cities, Map<String, Vertex> regionalHubs) {
-        Map<String, Vertex> cityDepots = new HashMap<>();
+    private Map<String, String> createCityDepots(List<Region> cities, Map<String, String> regionalHubs,
+            List<Map<String, Object>> depots, List<String[]> routeEnds, List<Map<String, Object>> routeProperties) {
+        Map<String, String> cityDepots = new HashMap<>();
         
         for (Region city : cities) {
             GeoLocation center = calculateCenterPoint(city.getBoundaries());
             
-            Vertex depot = g.addV("SupplyDepot")
-                .property("depotId", "depot-" + city.getId())
-                .property("name", city.getName() + " City Depot")
-                .property("type", "CITY_DEPOT")
-                .property("latitude", center.getLatitude())
-                .property("longitude", center.getLongitude())
-                .property("capacity", 2000 + random.nextInt(1000))
-                .property("currentStock", 1000 + random.nextInt(1000))
-                .property("securityLevel", "MEDIUM")
-                .next();
+            String depotId = "depot-" + city.getId();
+            depots.add(depot(depotId, city.getName() + " City Depot", "CITY_DEPOT", center,
+                    2000 + random.nextInt(1000), 1000 + random.nextInt(1000), "MEDIUM"));
             
-            cityDepots.put(city.getId(), depot);
+            cityDepots.put(city.getId(), depotId);
             
             // Connect to regional hub
-            Vertex parentHub = regionalHubs.get(city.getParentRegionId());
+            String parentHub = regionalHubs.get(city.getParentRegionId());
             if (parentHub != null) {
-                g.addE("SupplyRoute")
-                    .from(parentHub)
-                    .to(depot)
-                    .property("capacity", 500 + random.nextInt(200))
-                    .property("securityLevel", "MEDIUM")
-                    .property("transportType", "SECURE_TRUCK")
-                    .property("distance", random.nextDouble() * 300 + 50)
-                    .property("riskFactor", random.nextDouble() * 0.3 + 0.1)
-                    .property("isActive", true)
-                    .next();
+                routeEnds.add(new String[] { parentHub, depotId });
+                routeProperties.add(route(500 + random.nextInt(200), "MEDIUM", "SECURE_TRUCK",
+                        random.nextDouble() * 300 + 50, random.nextDouble() * 0.3 + 0.1));
             }
         }
         
         return cityDepots;
     }
 
-    private void createDistributionPoints(List<Region> districts, Map<String, Vertex> cityDepots) {
+    private void createDistributionPoints(List<Region> districts, Map<String, String> cityDepots,
+            List<Map<String, Object>> depots, List<String[]> routeEnds, List<Map<String, Object>> routeProperties) {
         for (Region district : districts) {
             if (random.nextDouble() < 0.7) { // 70% chance of having a distribution point
                 GeoLocation center = calculateCenterPoint(district.getBoundaries());
                 
-                Vertex point = g.addV("SupplyDepot")
-                    .property("depotId", "dist-" + district.getId())
-                    .property("name", district.getName() + " Distribution Point")
-                    .property("type", "DISTRIBUTION_POINT")
-                    .property("latitude", center.getLatitude())
-                    .property("longitude", center.getLongitude())
-                    .property("capacity", 500 + random.nextInt(200))
-                    .property("currentStock", 200 + random.nextInt(300))
-                    .property("securityLevel", "STANDARD")
-                    .next();
+                String depotId = "dist-" + district.getId();
+                depots.add(depot(depotId, district.getName() + " Distribution Point", "DISTRIBUTION_POINT", center,
+                        500 + random.nextInt(200), 200 + random.nextInt(300), "STANDARD"));
                 
                 // Connect to city depot
-                Vertex cityDepot = cityDepots.get(district.getParentRegionId());
+                String cityDepot = cityDepots.get(district.getParentRegionId());
                 if (cityDepot != null) {
-                    g.addE("SupplyRoute")
-                        .from(cityDepot)
-                        .to(point)
-                        .property("capacity", 100 + random.nextInt(50))
-                        .property("securityLevel", "STANDARD")
-                        .property("transportType", "LIGHT_VEHICLE")
-                        .property("distance", random.nextDouble() * 50 + 5)
-                        .property("riskFactor", random.nextDouble() * 0.2 + 0.2)
-                        .property("isActive", true)
-                        .next();
+                    routeEnds.add(new String[] { cityDepot, depotId });
+                    routeProperties.add(route(100 + random.nextInt(50), "STANDARD", "LIGHT_VEHICLE",
+                            random.nextDouble() * 50 + 5, random.nextDouble() * 0.2 + 0.2));
                 }
             }
         }
     }
 
+    private Map<String, Object> depot(String depotId, String name, String type, GeoLocation center,
+            int capacity, int currentStock, String securityLevel) {
+        Map<String, Object> depot = new HashMap<>();
+        depot.put("depotId", depotId);
+        depot.put("name", name);
+        depot.put("type", type);
+        depot.put("latitude", center.getLatitude());
+        depot.put("longitude", center.getLongitude());
+        depot.put("capacity", capacity);
+        depot.put("currentStock", currentStock);
+        depot.put("securityLevel", securityLevel);
+        return depot;
+    }
+
+    private Map<String, Object> route(int capacity, String securityLevel, String transportType,
+            double distance, double riskFactor) {
+        Map<String, Object> route = new HashMap<>();
+        route.put("capacity", capacity);
+        route.put("securityLevel", securityLevel);
+        route.put("transportType", transportType);
+        route.put("distance", distance);
+        route.put("riskFactor", riskFactor);
+        route.put("isActive", true);
+        return route;
+    }
+
     private GeoLocation calculateCenterPoint(GeoJsonPolygon boundaries) {
         List<Point> points = boundaries.getPoints();
         
@@ -0,0 +1,302 @@
+package itmo.rshd.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reachability over a directed graph, kept as its strongly connected components and a bitset
+ * transitive closure of the component DAG, so "does a reach b" is a single bit test.
+ * Inserting an edge ors the target's closure into every component that reaches the source.
+ * Removing one recomputes only the components that reached the source, and only when no parallel
+ * edge or other path still leads to the target. Changes that merge components, or may split one,
+ * rebuild everything.
+ */
+public final class ReachabilityIndex {
+
+    private final int nodeCount;
+    private final List<Map<Integer, Integer>> successors;          // Node -> successor -> parallel edges
+    private List<Map<Integer, Integer>> componentSuccessors;       // Same for the component DAG
+    private int[] component;
+    private int componentCount;
+    private int words;
+    private long[][] reach;                                        // Components reachable from each component
+    private int rebuilds;
+
+    private ReachabilityIndex(int nodeCount, List<Map<Integer, Integer>> successors) {
+        this.nodeCount = nodeCount;
+        this.successors = successors;
+        rebuild();
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    public int component(int node) {
+        return component[node];
+    }
+
+    // Full rebuilds since construction, including the initial one
+    public int rebuilds() {
+        return rebuilds;
+    }
+
+    public boolean reaches(int from, int to) {
+        return contains(reach[component[from]], component[to]);
+    }
+
+    /**
+     * @return nodes reachable from any of the sources, the sources included
+     */
+    public BitSet reachableFrom(int[] sources) {
+        long[] components = new long[words];
+        for (int source : sources) {
+            or(components, reach[component[source]]);
+        }
+        BitSet nodes = new BitSet(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            if (contains(components, component[node])) {
+                nodes.set(node);
+            }
+        }
+        return nodes;
+    }
+
+    public void insertEdge(int from, int to) {
+        successors.get(from).merge(to, 1, Integer::sum);
+        int source = component[from];
+        int target = component[to];
+        if (source == target) {
+            return;
+        }
+        componentSuccessors.get(source).merge(target, 1, Integer::sum);
+        if (contains(reach[source], target)) {
+            return;
+        }
+        if (contains(reach[target], source)) {
+            // Closes a cycle, so the components on it merge
+            rebuild();
+            return;
+        }
+        long[] added = reach[target];
+        for (int c = 0; c < componentCount; c++) {
+            if (contains(reach[c], source)) {
+                or(reach[c], added);
+            }
+        }
+    }
+
+    public void removeEdge(int from, int to) {
+        Map<Integer, Integer> out = successors.get(from);
+        Integer parallel = out.get(to);
+        if (parallel == null) {
+            return;
+        }
+        if (parallel > 1) {
+            out.put(to, parallel - 1);
+        } else {
+            out.remove(to);
+        }
+
+        int source = component[from];
+        int target = component[to];
+        if (source == target) {
+            if (parallel == 1) {
+                // The component may split
+                rebuild();
+            }
+            return;
+        }
+        Map<Integer, Integer> componentOut = componentSuccessors.get(source);
+        int remaining = componentOut.get(target) - 1;
+        if (remaining > 0) {
+            componentOut.put(target, remaining);
+            return;
+        }
+        componentOut.remove(target);
+        for (int next : componentOut.keySet()) {
+            if (contains(reach[next], target)) {
+                return;
+            }
+        }
+        recomputeAncestors(source);
+    }
+
+    // Only components that reached the changed one depend on it; they are redone successors first
+    private void recomputeAncestors(int changed) {
+        boolean[] affected = new boolean[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            affected[c] = contains(reach[c], changed);
+        }
+
+        boolean[] visited = new boolean[componentCount];
+        int[][] next = new int[componentCount][];
+        int[] cursor = new int[componentCount];
+        int[] stack = new int[componentCount];
+        for (int root = 0; root < componentCount; root++) {
+            if (!affected[root] || visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            stack[depth++] = root;
+            visited[root] = true;
+            next[root] = keys(componentSuccessors.get(root));
+            while (depth > 0) {
+                int c = stack[depth - 1];
+                if (cursor[c] < next[c].length) {
+                    int successor = next[c][cursor[c]++];
+                    if (affected[successor] && !visited[successor]) {
+                        visited[successor] = true;
+                        next[successor] = keys(componentSuccessors.get(successor));
+                        stack[depth++] = successor;
+                    }
+                } else {
+                    depth--;
+                    long[] bits = new long[words];
+                    set(bits, c);
+                    for (int successor : next[c]) {
+                        or(bits, reach[successor]);
+                    }
+                    reach[c] = bits;
+                }
+            }
+        }
+    }
+
+    // Iterative Tarjan; components are numbered in reverse topological order, so successors come first
+    private void rebuild() {
+        rebuilds++;
+        int[][] adjacency = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            adjacency[node] = keys(successors.get(node));
+        }
+
+        component = new int[nodeCount];
+        componentCount = 0;
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        int[] cursor = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int top = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = counter++;
+            stack[top++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                if (cursor[node] < adjacency[node].length) {
+                    int successor = adjacency[node][cursor[node]++];
+                    if (index[successor] < 0) {
+                        index[successor] = low[successor] = counter++;
+                        stack[top++] = successor;
+                        onStack[successor] = true;
+                        callStack[depth++] = successor;
+                    } else if (onStack[successor]) {
+                        low[node] = Math.min(low[node], index[successor]);
+                    }
+                } else {
+                    depth--;
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        low[parent] = Math.min(low[parent], low[node]);
+                    }
+                    if (low[node] == index[node]) {
+                        int member;
+                        do {
+                            member = stack[--top];
+                            onStack[member] = false;
+                            component[member] = componentCount;
+                        } while (member != node);
+                        componentCount++;
+                    }
+                }
+            }
+        }
+
+        componentSuccessors = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            componentSuccessors.add(new HashMap<>());
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            for (Map.Entry<Integer, Integer> edge : successors.get(node).entrySet()) {
+                int source = component[node];
+                int target = component[edge.getKey()];
+                if (source != target) {
+                    componentSuccessors.get(source).merge(target, edge.getValue(), Integer::sum);
+                }
+            }
+        }
+
+        words = (componentCount + 63) >>> 6;
+        reach = new long[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            long[] bits = new long[words];
+            set(bits, c);
+            for (int successor : componentSuccessors.get(c).keySet()) {
+                or(bits, reach[successor]);
+            }
+            reach[c] = bits;
+        }
+    }
+
+    private static int[] keys(Map<Integer, Integer> map) {
+        int[] keys = new int[map.size()];
+        int i = 0;
+        for (int key : map.keySet()) {
+            keys[i++] = key;
+        }
+        return keys;
+    }
+
+    private static boolean contains(long[] bits, int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void or(long[] bits, long[] other) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other[i];
+        }
+    }
+
+    public static class Builder {
+
+        private final List<Map<Integer, Integer>> successors;
+
+        public Builder(int nodeCount) {
+            successors = new ArrayList<>(nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                successors.add(new HashMap<>());
+            }
+        }
+
+        public Builder addEdge(int from, int to) {
+            successors.get(from).merge(to, 1, Integer::sum);
+            return this;
+        }
+
+        public ReachabilityIndex build() {
+            return new ReachabilityIndex(successors.size(), successors);
+        }
+    }
+}
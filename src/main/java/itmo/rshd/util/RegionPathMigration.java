@@ -0,0 +1,41 @@
+package itmo.rshd.util;
+
+import itmo.rshd.model.Region;
+import itmo.rshd.repository.RegionRepository;
+import itmo.rshd.service.RegionPathService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Backfills the materialised ancestor paths on regions and users that do not have one yet.
+ * Runs once the application is ready, i.e. after data generation, and is a no-op when
+ * every document already carries its path.
+ */
+@Component
+public class RegionPathMigration {
+
+    private final RegionRepository regionRepository;
+    private final RegionPathService regionPathService;
+
+    @Autowired
+    public RegionPathMigration(RegionRepository regionRepository, RegionPathService regionPathService) {
+        this.regionRepository = regionRepository;
+        this.regionPathService = regionPathService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        System.out.println("Backfilling region ancestor paths...");
+        regionPathService.reload();
+        List<String> regionIds = regionRepository.findAllHierarchyLinks().stream()
+                .map(Region::getId)
+                .collect(Collectors.toList());
+        regionPathService.writePaths(regionIds, true);
+        System.out.println("Region ancestor path backfill complete for " + regionIds.size() + " regions.");
+    }
+}
@@ -0,0 +1,166 @@
+package itmo.rshd.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Count-min sketch over a sliding time window.
+ * The window is a ring of time buckets, each holding its own depth x width counter grid;
+ * a bucket is cleared lazily when the ring wraps around to it. Memory is fixed at
+ * buckets * depth * width counters regardless of how many distinct keys are seen,
+ * and estimates never undercount. Increments hold a bucket's read lock and a reset holds its
+ * write lock, so a count can never land in a bucket after it has moved on to a later lap.
+ */
+public class SlidingWindowCountMinSketch {
+
+    private static final long[] ROW_SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int widthMask;
+    private final int buckets;
+    private final long bucketMillis;
+    private final AtomicIntegerArray counters;
+    private final AtomicLongArray bucketEpochs; // Epoch (time / bucketMillis) each bucket currently holds
+    private final ReentrantReadWriteLock[] bucketLocks;
+
+    /**
+     * @param width  counters per row, rounded up to a power of two
+     * @param depth  independent hash rows, at most 8
+     * @param window total window length in milliseconds
+     */
+    public SlidingWindowCountMinSketch(int width, int depth, int buckets, long window) {
+        if (depth < 1 || depth > ROW_SEEDS.length || buckets < 1 || window < buckets) {
+            throw new IllegalArgumentException("Invalid sketch dimensions");
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = roundedWidth - 1;
+        this.buckets = buckets;
+        this.bucketMillis = window / buckets;
+        this.counters = new AtomicIntegerArray(buckets * depth * roundedWidth);
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        this.bucketLocks = new ReentrantReadWriteLock[buckets];
+        for (int b = 0; b < buckets; b++) {
+            bucketEpochs.set(b, -1);
+            bucketLocks[b] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Counts one occurrence of the key at the given time.
+     * @return the estimated count of the key within the window, including this occurrence
+     */
+    public int add(String key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int bucket = (int) Math.floorMod(epoch, (long) buckets);
+        long hash = baseHash(key);
+        int rowSize = widthMask + 1;
+
+        Lock lock = lockBucket(bucket, epoch);
+        if (lock != null) {
+            try {
+                for (int row = 0; row < depth; row++) {
+                    counters.incrementAndGet((bucket * depth + row) * rowSize + column(hash, row));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sumOverWindow(row, column(hash, row), epoch));
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the estimated count of the key within the window ending at the given time
+     */
+    public int estimate(String key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long hash = baseHash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sumOverWindow(row, column(hash, row), epoch));
+        }
+        return estimate;
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * buckets;
+    }
+
+    private int sumOverWindow(int row, int column, long epoch) {
+        int rowSize = widthMask + 1;
+        int sum = 0;
+        for (int b = 0; b < buckets; b++) {
+            long bucketEpoch = bucketEpochs.get(b);
+            if (bucketEpoch > epoch - buckets && bucketEpoch <= epoch) {
+                sum += counters.get((b * depth + row) * rowSize + column);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the bucket's read lock, held while the bucket is on this epoch. A bucket still on a
+     * previous lap is cleared first under the write lock.
+     * @return null if the bucket has already moved past the epoch, so the count is outside the window
+     */
+    private Lock lockBucket(int bucket, long epoch) {
+        ReentrantReadWriteLock lock = bucketLocks[bucket];
+        while (true) {
+            lock.readLock().lock();
+            long current = bucketEpochs.get(bucket);
+            if (current == epoch) {
+                return lock.readLock();
+            }
+            lock.readLock().unlock();
+            if (current > epoch) {
+                return null;
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (bucketEpochs.get(bucket) < epoch) {
+                    int rowSize = widthMask + 1;
+                    int from = bucket * depth * rowSize;
+                    for (int i = from; i < from + depth * rowSize; i++) {
+                        counters.set(i, 0);
+                    }
+                    bucketEpochs.set(bucket, epoch);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private int column(long hash, int row) {
+        return (int) (mix(hash ^ ROW_SEEDS[row]) & widthMask);
+    }
+
+    private long baseHash(String key) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash;
+    }
+
+    // 64-bit finalizer from MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,560 @@
+package itmo.rshd.util;
+
+import itmo.rshd.model.SupplyCostFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable compressed-sparse-row copy of the supply network: depots are dense indexes and
+ * the outgoing routes of depot v occupy positions offsets[v]..offsets[v+1] of the route arrays.
+ * Inactive routes are kept so toggling a route only swaps the activity flags.
+ */
+public final class SupplyNetworkSnapshot {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    public static final SupplyNetworkSnapshot EMPTY = new Builder().build();
+
+    private final String[] depotIds;
+    private final String[] depotNames;
+    private final String[] depotTypes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] depotCapacities;
+    private final int[] depotStocks;
+    private final Map<String, Integer> indexByDepot;
+
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] distances;
+    private final double[] riskFactors;
+    private final int[] capacities;
+    private final boolean[] active;
+    private final Object[] routeIds;
+    private final Map<Object, Integer> indexByRoute;
+
+    // Great-circle length of each route, the basis of the A* heuristic
+    private final double[] routeKm;
+    private final CostModel[] presetModels;
+
+    private SupplyNetworkSnapshot(String[] depotIds, String[] depotNames, String[] depotTypes,
+            double[] latitudes, double[] longitudes, int[] depotCapacities, int[] depotStocks,
+            Map<String, Integer> indexByDepot, int[] offsets, int[] sources, int[] targets, double[] distances, double[] riskFactors,
+            int[] capacities, boolean[] active, Object[] routeIds, Map<Object, Integer> indexByRoute,
+            double[] routeKm, CostModel[] presetModels) {
+        this.depotIds = depotIds;
+        this.depotNames = depotNames;
+        this.depotTypes = depotTypes;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.depotCapacities = depotCapacities;
+        this.depotStocks = depotStocks;
+        this.indexByDepot = indexByDepot;
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.distances = distances;
+        this.riskFactors = riskFactors;
+        this.capacities = capacities;
+        this.active = active;
+        this.routeIds = routeIds;
+        this.indexByRoute = indexByRoute;
+        this.routeKm = routeKm;
+        this.presetModels = presetModels;
+    }
+
+    /**
+     * Copy of this snapshot with one route switched on or off; all other arrays are shared.
+     */
+    public SupplyNetworkSnapshot withRouteActive(int route, boolean isActive) {
+        if (active[route] == isActive) {
+            return this;
+        }
+        boolean[] nextActive = active.clone();
+        nextActive[route] = isActive;
+        return new SupplyNetworkSnapshot(depotIds, depotNames, depotTypes, latitudes, longitudes,
+                depotCapacities, depotStocks, indexByDepot, offsets, sources, targets, distances, riskFactors, capacities, nextActive, routeIds, indexByRoute,
+                routeKm, presetModels);
+    }
+
+    /**
+     * Copy of this snapshot with new stock levels for the given depots; depots not in the
+     * snapshot are ignored and all other arrays are shared.
+     */
+    public SupplyNetworkSnapshot withDepotStocks(Map<String, Integer> stocks) {
+        int[] nextStocks = depotStocks.clone();
+        boolean changed = false;
+        for (Map.Entry<String, Integer> entry : stocks.entrySet()) {
+            int depot = depotIndex(entry.getKey());
+            if (depot >= 0 && entry.getValue() != null && nextStocks[depot] != entry.getValue()) {
+                nextStocks[depot] = entry.getValue();
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        return new SupplyNetworkSnapshot(depotIds, depotNames, depotTypes, latitudes, longitudes,
+                depotCapacities, nextStocks, indexByDepot, offsets, sources, targets, distances, riskFactors, capacities, active, routeIds, indexByRoute,
+                routeKm, presetModels);
+    }
+
+    // True when the other snapshot differs from this one at most in route activity
+    public boolean sharesStructureWith(SupplyNetworkSnapshot other) {
+        return other != null && other.targets == targets && other.depotIds == depotIds
+                && other.depotStocks == depotStocks;
+    }
+
+    public int depotCount() {
+        return depotIds.length;
+    }
+
+    public int routeCount() {
+        return targets.length;
+    }
+
+    // Dense index of the depot, or -1 if it is not part of the snapshot
+    public int depotIndex(String depotId) {
+        Integer index = indexByDepot.get(depotId);
+        return index != null ? index : -1;
+    }
+
+    // CSR position of the route, or -1 if it is not part of the snapshot
+    public int routeIndex(Object routeId) {
+        Integer index = indexByRoute.get(routeId);
+        return index != null ? index : -1;
+    }
+
+    public String depotId(int depot) {
+        return depotIds[depot];
+    }
+
+    public String depotName(int depot) {
+        return depotNames[depot];
+    }
+
+    public String depotType(int depot) {
+        return depotTypes[depot];
+    }
+
+    public int depotCapacity(int depot) {
+        return depotCapacities[depot];
+    }
+
+    public int depotStock(int depot) {
+        return depotStocks[depot];
+    }
+
+    public int firstRoute(int depot) {
+        return offsets[depot];
+    }
+
+    public int endRoute(int depot) {
+        return offsets[depot + 1];
+    }
+
+    public Object routeId(int route) {
+        return routeIds[route];
+    }
+
+    public int routeSource(int route) {
+        return sources[route];
+    }
+
+    public int routeTarget(int route) {
+        return targets[route];
+    }
+
+    public double routeDistance(int route) {
+        return distances[route];
+    }
+
+    public double routeRiskFactor(int route) {
+        return riskFactors[route];
+    }
+
+    public int routeCapacity(int route) {
+        return capacities[route];
+    }
+
+    public boolean isRouteActive(int route) {
+        return active[route];
+    }
+
+    public CostModel costModel(SupplyCostFunction costFunction) {
+        return presetModels[costFunction.ordinal()];
+    }
+
+    /**
+     * Linear combination of route attributes: distance, risk as -ln(1 - riskFactor), and the
+     * inverse of the route capacity so low-capacity routes are avoided. Negative weights count as 0.
+     */
+    public CostModel costModel(double distanceWeight, double riskWeight, double capacityWeight) {
+        double[] costs = new double[targets.length];
+        for (int e = 0; e < costs.length; e++) {
+            costs[e] = Math.max(0, distanceWeight) * SupplyCostFunction.DISTANCE.weight(distances[e], riskFactors[e])
+                    + Math.max(0, riskWeight) * SupplyCostFunction.RISK.weight(distances[e], riskFactors[e])
+                    + Math.max(0, capacityWeight) / Math.max(1, capacities[e]);
+        }
+        return costModel(costs);
+    }
+
+    private CostModel costModel(double[] costs) {
+        // Taken over inactive routes too: a bound over a superset stays valid when routes are toggled
+        double bound = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < costs.length; e++) {
+            if (routeKm[e] > 1e-6) {
+                bound = Math.min(bound, costs[e] / routeKm[e]);
+            }
+        }
+        return new CostModel(costs, Double.isInfinite(bound) ? 0 : bound);
+    }
+
+    /**
+     * Per-route costs together with the lowest cost per great-circle kilometre of any route,
+     * which scales the A* heuristic so it never overestimates.
+     */
+    public record CostModel(double[] routeCosts, double costPerKm) {
+
+        public double pathCost(int[] routes) {
+            double cost = 0;
+            for (int route : routes) {
+                cost += routeCosts[route];
+            }
+            return cost;
+        }
+    }
+
+    /**
+     * A* over active routes. The heuristic is the great-circle distance to the target scaled by the
+     * model's cost per kilometre, which never overestimates, so the path is optimal.
+     * @param bannedRoutes routes to skip, may be null
+     * @param bannedDepots depots to skip, may be null
+     * @return the cheapest path, or null if the target is unreachable
+     */
+    public Path shortestPath(int source, int target, CostModel model,
+            boolean[] bannedRoutes, boolean[] bannedDepots) {
+        int n = depotIds.length;
+        if (source < 0 || target < 0 || source >= n || target >= n) {
+            return null;
+        }
+        if (source == target) {
+            return new Path(source, new int[0], 0);
+        }
+        double scale = model.costPerKm();
+        double[] costs = model.routeCosts();
+        double[] best = new double[n];
+        int[] via = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        Arrays.fill(via, -1);
+
+        MinHeap open = new MinHeap(Math.min(n, 64));
+        best[source] = 0;
+        open.push(scale * distanceKm(source, target), source);
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            if (settled[u]) {
+                continue;
+            }
+            settled[u] = true;
+            if (u == target) {
+                break;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (!active[e] || settled[v]
+                        || (bannedRoutes != null && bannedRoutes[e])
+                        || (bannedDepots != null && bannedDepots[v])) {
+                    continue;
+                }
+                double cost = best[u] + costs[e];
+                if (cost < best[v]) {
+                    best[v] = cost;
+                    via[v] = e;
+                    open.push(cost + scale * distanceKm(v, target), v);
+                }
+            }
+        }
+        if (via[target] < 0) {
+            return null;
+        }
+
+        int hops = 0;
+        for (int v = target; v != source; v = sources[via[v]]) {
+            hops++;
+        }
+        int[] routes = new int[hops];
+        for (int v = target; v != source; v = sources[via[v]]) {
+            routes[--hops] = via[v];
+        }
+        return new Path(source, routes, best[target]);
+    }
+
+    /**
+     * Yen's algorithm: the k cheapest loopless paths over active routes, cheapest first.
+     * Each candidate deviates from an accepted path at a spur depot, with the accepted paths'
+     * next routes and the root path's depots banned for the spur search.
+     */
+    public List<Path> kShortestPaths(int source, int target, CostModel model, int k) {
+        List<Path> accepted = new ArrayList<>();
+        Path first = shortestPath(source, target, model, null, null);
+        if (first == null || k <= 0) {
+            return accepted;
+        }
+        accepted.add(first);
+
+        PriorityQueue<Path> candidates = new PriorityQueue<>(Comparator.comparingDouble(Path::cost));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(routeList(first.routes()));
+        boolean[] bannedRoutes = new boolean[targets.length];
+        boolean[] bannedDepots = new boolean[depotIds.length];
+
+        while (accepted.size() < k) {
+            int[] previous = accepted.get(accepted.size() - 1).routes();
+            int spurDepot = source;
+            for (int i = 0; i < previous.length; i++) {
+                int[] root = Arrays.copyOf(previous, i);
+                List<Integer> banned = new ArrayList<>();
+                for (Path path : accepted) {
+                    int[] routes = path.routes();
+                    if (routes.length > i && Arrays.equals(routes, 0, i, root, 0, i)) {
+                        bannedRoutes[routes[i]] = true;
+                        banned.add(routes[i]);
+                    }
+                }
+                int depot = source;
+                for (int route : root) {
+                    bannedDepots[depot] = true;
+                    depot = targets[route];
+                }
+
+                Path spur = shortestPath(spurDepot, target, model, bannedRoutes, bannedDepots);
+                if (spur != null) {
+                    int[] routes = Arrays.copyOf(root, i + spur.routes().length);
+                    System.arraycopy(spur.routes(), 0, routes, i, spur.routes().length);
+                    if (seen.add(routeList(routes))) {
+                        candidates.add(new Path(source, routes, model.pathCost(routes)));
+                    }
+                }
+
+                for (int route : banned) {
+                    bannedRoutes[route] = false;
+                }
+                depot = source;
+                for (int route : root) {
+                    bannedDepots[depot] = false;
+                    depot = targets[route];
+                }
+                spurDepot = targets[previous[i]];
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accepted.add(candidates.poll());
+        }
+        return accepted;
+    }
+
+    private List<Integer> routeList(int[] routes) {
+        List<Integer> list = new ArrayList<>(routes.length);
+        for (int route : routes) {
+            list.add(route);
+        }
+        return list;
+    }
+
+    // Great-circle distance between two depots
+    public double distanceKm(int a, int b) {
+        double lat1 = Math.toRadians(latitudes[a]);
+        double lat2 = Math.toRadians(latitudes[b]);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(longitudes[b] - longitudes[a]);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * A path as the sequence of routes taken from the source depot.
+     */
+    public record Path(int source, int[] routes, double cost) {
+
+        public int target(SupplyNetworkSnapshot snapshot) {
+            return routes.length == 0 ? source : snapshot.routeTarget(routes[routes.length - 1]);
+        }
+    }
+
+    public static class Builder {
+
+        private final List<String> depotIds = new ArrayList<>();
+        private final List<String> depotNames = new ArrayList<>();
+        private final List<String> depotTypes = new ArrayList<>();
+        private final List<double[]> coordinates = new ArrayList<>();
+        private final List<int[]> holdings = new ArrayList<>();
+        private final Map<String, Integer> indexByDepot = new HashMap<>();
+        private final List<Object[]> routes = new ArrayList<>();
+
+        public Builder addDepot(String depotId, String name, String type, double latitude, double longitude,
+                int capacity, int currentStock) {
+            if (depotId == null || indexByDepot.containsKey(depotId)) {
+                return this;
+            }
+            indexByDepot.put(depotId, depotIds.size());
+            depotIds.add(depotId);
+            depotNames.add(name);
+            depotTypes.add(type);
+            coordinates.add(new double[] { latitude, longitude });
+            holdings.add(new int[] { capacity, currentStock });
+            return this;
+        }
+
+        // Routes whose endpoints were not added as depots are dropped at build time
+        public Builder addRoute(Object routeId, String sourceDepotId, String targetDepotId,
+                double distance, double riskFactor, int capacity, boolean isActive) {
+            routes.add(new Object[] { routeId, sourceDepotId, targetDepotId, distance, riskFactor, capacity, isActive });
+            return this;
+        }
+
+        public SupplyNetworkSnapshot build() {
+            int n = depotIds.size();
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            int[] depotCapacities = new int[n];
+            int[] depotStocks = new int[n];
+            for (int v = 0; v < n; v++) {
+                latitudes[v] = coordinates.get(v)[0];
+                longitudes[v] = coordinates.get(v)[1];
+                depotCapacities[v] = holdings.get(v)[0];
+                depotStocks[v] = holdings.get(v)[1];
+            }
+
+            List<Object[]> valid = new ArrayList<>(routes.size());
+            int[] offsets = new int[n + 1];
+            for (Object[] route : routes) {
+                Integer source = indexByDepot.get((String) route[1]);
+                if (source != null && indexByDepot.containsKey((String) route[2])) {
+                    valid.add(route);
+                    offsets[source + 1]++;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            int m = valid.size();
+            int[] sources = new int[m];
+            int[] targets = new int[m];
+            double[] distances = new double[m];
+            double[] riskFactors = new double[m];
+            int[] capacities = new int[m];
+            boolean[] active = new boolean[m];
+            Object[] routeIds = new Object[m];
+            Map<Object, Integer> indexByRoute = new HashMap<>();
+            int[] cursor = Arrays.copyOf(offsets, n);
+            for (Object[] route : valid) {
+                int source = indexByDepot.get((String) route[1]);
+                int e = cursor[source]++;
+                sources[e] = source;
+                targets[e] = indexByDepot.get((String) route[2]);
+                distances[e] = (Double) route[3];
+                riskFactors[e] = (Double) route[4];
+                capacities[e] = (Integer) route[5];
+                active[e] = (Boolean) route[6];
+                routeIds[e] = route[0];
+                if (route[0] != null) {
+                    indexByRoute.put(route[0], e);
+                }
+            }
+
+            SupplyNetworkSnapshot snapshot = new SupplyNetworkSnapshot(
+                    depotIds.toArray(new String[0]), depotNames.toArray(new String[0]), depotTypes.toArray(new String[0]),
+                    latitudes, longitudes, depotCapacities, depotStocks, new HashMap<>(indexByDepot),
+                    offsets, sources, targets, distances, riskFactors, capacities, active, routeIds, indexByRoute,
+                    new double[m], new CostModel[SupplyCostFunction.values().length]);
+            for (int e = 0; e < m; e++) {
+                snapshot.routeKm[e] = snapshot.distanceKm(sources[e], targets[e]);
+            }
+            for (SupplyCostFunction costFunction : SupplyCostFunction.values()) {
+                double[] costs = new double[m];
+                for (int e = 0; e < m; e++) {
+                    costs[e] = costFunction.weight(distances[e], riskFactors[e]);
+                }
+                snapshot.presetModels[costFunction.ordinal()] = snapshot.costModel(costs);
+            }
+            return snapshot;
+        }
+    }
+
+    // Binary min-heap of (priority, depot) pairs; stale entries are skipped by the caller
+    private static final class MinHeap {
+
+        private double[] priorities;
+        private int[] depots;
+        private int size;
+
+        MinHeap(int capacity) {
+            priorities = new double[Math.max(capacity, 4)];
+            depots = new int[priorities.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(double priority, int depot) {
+            if (size == priorities.length) {
+                priorities = Arrays.copyOf(priorities, size * 2);
+                depots = Arrays.copyOf(depots, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] <= priority) {
+                    break;
+                }
+                priorities[i] = priorities[parent];
+                depots[i] = depots[parent];
+                i = parent;
+            }
+            priorities[i] = priority;
+            depots[i] = depot;
+        }
+
+        int pop() {
+            int top = depots[0];
+            size--;
+            double priority = priorities[size];
+            int depot = depots[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                    child++;
+                }
+                if (priorities[child] >= priority) {
+                    break;
+                }
+                priorities[i] = priorities[child];
+                depots[i] = depots[child];
+                i = child;
+            }
+            priorities[i] = priority;
+            depots[i] = depot;
+            return top;
+        }
+    }
+}
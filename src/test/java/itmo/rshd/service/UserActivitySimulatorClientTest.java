@@ -0,0 +1,151 @@
+package itmo.rshd.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the client against a local stub of the simulator built on the JDK HTTP server.
+ */
+class UserActivitySimulatorClientTest {
+
+    private static final long RUN_DURATION_MS = 300;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, Deque<Integer>> scriptedStatuses = new ConcurrentHashMap<>();
+    private volatile long startDelayMs;
+
+    private UserActivitySimulatorClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/start", this::handle);
+        server.createContext("/stop", this::handle);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        client = new UserActivitySimulatorClient(new ObjectMapper(), 1000);
+        ReflectionTestUtils.setField(client, "enabled", true);
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(client, "maxRetries", 2);
+        ReflectionTestUtils.setField(client, "retryBackoffMs", 50L);
+        ReflectionTestUtils.setField(client, "runDurationMs", RUN_DURATION_MS);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void startsSimulationAndSchedulesStopWithoutBlockingCaller() throws Exception {
+        long calledAt = System.nanoTime();
+        CompletableFuture<Void> run = client.runSimulation(List.of("user-1", "user-2"));
+        long returnedAfterMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - calledAt);
+
+        assertThat(returnedAfterMs).isLessThan(RUN_DURATION_MS);
+        assertThat(run).isNotDone();
+
+        run.get(5, TimeUnit.SECONDS);
+        assertThat(paths()).containsExactly("/start", "/stop");
+        assertThat(requests.get(0).body()).contains("\"user_ids\"").contains("user-1").contains("user-2");
+        long stopAfterMs = TimeUnit.NANOSECONDS.toMillis(requests.get(1).receivedAt() - requests.get(0).receivedAt());
+        assertThat(stopAfterMs).isGreaterThanOrEqualTo(RUN_DURATION_MS);
+    }
+
+    @Test
+    void retriesStartAfterServerError() throws Exception {
+        scriptedStatuses.put("/start", new ArrayDeque<>(List.of(503, 500)));
+
+        client.runSimulation(List.of("user-1")).get(5, TimeUnit.SECONDS);
+
+        assertThat(paths()).containsExactly("/start", "/start", "/start", "/stop");
+    }
+
+    @Test
+    void givesUpWhenServerErrorsOutlastRetries() throws Exception {
+        scriptedStatuses.put("/start", new ArrayDeque<>(List.of(503, 503, 503)));
+
+        client.runSimulation(List.of("user-1")).get(5, TimeUnit.SECONDS);
+
+        assertThat(paths()).containsExactly("/start", "/start", "/start");
+    }
+
+    @Test
+    void timesOutSlowStartWithoutSendingStop() throws Exception {
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 200L);
+        ReflectionTestUtils.setField(client, "maxRetries", 0);
+        startDelayMs = 2000;
+
+        long calledAt = System.nanoTime();
+        client.runSimulation(List.of("user-1")).get(5, TimeUnit.SECONDS);
+        long completedAfterMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - calledAt);
+
+        assertThat(completedAfterMs).isLessThan(startDelayMs);
+        assertThat(paths()).containsExactly("/start");
+    }
+
+    @Test
+    void skipsEmptyUserList() throws Exception {
+        client.runSimulation(List.of()).get(1, TimeUnit.SECONDS);
+
+        assertThat(requests).isEmpty();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.add(new RecordedRequest(path, System.nanoTime(), body));
+
+        if (path.equals("/start") && startDelayMs > 0) {
+            try {
+                Thread.sleep(startDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Deque<Integer> statuses = scriptedStatuses.get(path);
+        Integer scripted = statuses != null ? statuses.pollFirst() : null;
+        int status = scripted != null ? scripted : 200;
+        byte[] response = ("{\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private List<String> paths() {
+        return requests.stream().map(RecordedRequest::path).toList();
+    }
+
+    private record RecordedRequest(String path, long receivedAt, String body) {
+    }
+}